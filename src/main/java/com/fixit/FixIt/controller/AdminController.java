@@ -5,9 +5,12 @@ import com.fixit.FixIt.dto.PaginatedResponse;
 import com.fixit.FixIt.dto.SuccessResponse;
 import com.fixit.FixIt.dto.UpdateIssueStatusRequest;
 import com.fixit.FixIt.exception.BadRequestException;
+import com.fixit.FixIt.exception.ForbiddenException;
 import com.fixit.FixIt.model.Admin;
 import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.security.VerifiedTokenCache;
 import com.fixit.FixIt.service.AdminService;
+import com.fixit.FixIt.service.ImageByteCache;
 import com.fixit.FixIt.service.IssueService;
 import com.fixit.FixIt.util.ApiResponseUtil;
 import com.fixit.FixIt.util.AppConstants;
@@ -17,6 +20,7 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -29,10 +33,15 @@ public class AdminController {
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
     private final AdminService adminService;
     private final IssueService issueService;
+    private final VerifiedTokenCache tokenCache;
+    private final ImageByteCache imageByteCache;
 
-    public AdminController(AdminService adminService, IssueService issueService) {
+    public AdminController(AdminService adminService, IssueService issueService,
+                           VerifiedTokenCache tokenCache, ImageByteCache imageByteCache) {
         this.adminService = adminService;
         this.issueService = issueService;
+        this.tokenCache = tokenCache;
+        this.imageByteCache = imageByteCache;
     }
 
     @GetMapping("/profile/{uid}")
@@ -46,6 +55,24 @@ public class AdminController {
         return ApiResponseUtil.success(adminProfile);
     }
 
+    @GetMapping("/dashboard/cache-metrics")
+    public ResponseEntity<SuccessResponse<Map<String, Object>>> getDashboardCacheMetrics() {
+        logger.info("Getting dashboard cache metrics");
+        return ApiResponseUtil.success(adminService.getDashboardCacheMetrics());
+    }
+
+    @GetMapping("/security/token-cache-metrics")
+    public ResponseEntity<SuccessResponse<Map<String, Object>>> getTokenCacheMetrics() {
+        logger.info("Getting token cache metrics");
+        return ApiResponseUtil.success(tokenCache.getMetrics());
+    }
+
+    @GetMapping("/images/cache-metrics")
+    public ResponseEntity<SuccessResponse<Map<String, Object>>> getImageCacheMetrics() {
+        logger.info("Getting image cache metrics");
+        return ApiResponseUtil.success(imageByteCache.getMetrics());
+    }
+
     @GetMapping("/dashboard/{uid}")
     public ResponseEntity<SuccessResponse<Map<String, Object>>> getAdminDashboard(@PathVariable String uid) {
         logger.info("Getting dashboard stats for admin: {}", uid);
@@ -68,13 +95,20 @@ public class AdminController {
             @RequestParam(required = false) String endDate,
             @RequestParam(required = false, defaultValue = "newest") String sort,
             @RequestParam(required = false, defaultValue = "1") int page,
-            @RequestParam(required = false, defaultValue = "10") int size) {
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         
         logger.info("Admin fetching issues with filters: status={}, location={}, reporterUid={}, searchTerm={}, " +
-                "minUpvotes={}, startDate={}, endDate={}, sort={}, page={}, size={}", 
-                status, location, reporterUid, searchTerm, minUpvotes, startDate, endDate, sort, page, size);
+                "minUpvotes={}, startDate={}, endDate={}, sort={}, page={}, size={}, cursorMode={}", 
+                status, location, reporterUid, searchTerm, minUpvotes, startDate, endDate, sort, page, size,
+                cursor != null);
         
-        PaginatedResponse<Issue> paginatedResponse = issueService.getIssues(
+        // A cursor parameter (empty for the first page) switches to keyset pagination
+        PaginatedResponse<Issue> paginatedResponse = cursor != null
+            ? issueService.getIssuesByCursor(
+                status, location, reporterUid, searchTerm, minUpvotes, 
+                startDate, endDate, sort, cursor, size)
+            : issueService.getIssues(
                 status, location, reporterUid, searchTerm, minUpvotes, 
                 startDate, endDate, sort, page, size);
         
@@ -85,7 +119,8 @@ public class AdminController {
     public ResponseEntity<SuccessResponse<Issue>> updateIssueStatus(
             @PathVariable String issueId,
             @Valid @RequestBody UpdateIssueStatusRequest request,
-            @RequestHeader("X-Admin-Id") String adminUid) {
+            @RequestHeader("X-Admin-Id") String adminUid,
+            Authentication authentication) {
         
         logger.info("Admin [{}] updating issue [{}] status to: {}", adminUid, issueId, request.getStatus());
         
@@ -94,6 +129,11 @@ public class AdminController {
         ValidationUtil.validateRequired(adminUid, "Admin ID");
         ValidationUtil.validateRequired((Object)request.getStatus(), "Status");
         
+        // The acting admin is the authenticated one, not whoever the header names
+        if (!adminUid.equals(authentication.getName())) {
+            throw new ForbiddenException("X-Admin-Id does not match the authenticated admin");
+        }
+        
         
         // Use AdminService's method that handles IssueStatus updates
         Issue updatedIssue = adminService.updateIssueStatus(
@@ -108,14 +148,16 @@ public class AdminController {
     
     @GetMapping("/issues/{issueId}/history")
     public ResponseEntity<SuccessResponse<Map<String, Object>>> getIssueStatusHistory(
-            @PathVariable String issueId) {
+            @PathVariable String issueId,
+            @RequestParam(required = false, defaultValue = "50") int limit,
+            @RequestParam(required = false) String after) {
         
         logger.info("Getting status history for issue: {}", issueId);
         
         // Validate input
         ValidationUtil.validateRequired(issueId, "Issue ID");
         
-        Map<String, Object> history = adminService.getIssueStatusHistory(issueId);
+        Map<String, Object> history = adminService.getIssueStatusHistory(issueId, limit, after);
         return ApiResponseUtil.success(history);
     }
     
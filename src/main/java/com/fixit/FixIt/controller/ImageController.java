@@ -1,27 +1,39 @@
 package com.fixit.FixIt.controller;
 
 import com.fixit.FixIt.dto.UploadImageRequest;
+import com.fixit.FixIt.model.ImageMetadata;
+import com.fixit.FixIt.model.ImageSize;
+import com.fixit.FixIt.model.ImageVariant;
 import com.fixit.FixIt.service.FirestoreImageService;
+import com.fixit.FixIt.service.ImageByteCache;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Base64;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/images")
 @CrossOrigin
 public class ImageController {
     private static final Logger logger = LoggerFactory.getLogger(ImageController.class);
+    // Image IDs are never reused and a final rendition's bytes never change
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl PENDING_RENDITION = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
 
     private final FirestoreImageService firestoreImageService;
     
@@ -128,23 +140,48 @@ public class ImageController {
     }
     
     @GetMapping("/{imageId}")
-    public ResponseEntity<byte[]> getImage(@PathVariable String imageId) {
+    public ResponseEntity<Resource> getImage(
+            @PathVariable String imageId,
+            @RequestParam(required = false) String size,
+            WebRequest webRequest) {
         try {
-            Map<String, Object> imageData = firestoreImageService.getImage(imageId);
-            logger.info("Image retrieved: {}", imageId);
+            ImageSize imageSize = ImageSize.fromParam(size);
+            if (imageSize == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid size value. Use thumbnail, medium or full");
+            }
             
-            // Get image data and content type
-            String base64Data = (String) imageData.get("data");
-            String contentType = (String) imageData.get("contentType");
+            // Revalidation of a rendition this instance has served needs no datastore read
+            String cachedETag = firestoreImageService.getCachedETag(imageId, imageSize);
+            if (cachedETag != null && webRequest.checkNotModified(cachedETag)) {
+                return notModified(cachedETag, IMMUTABLE);
+            }
             
-            // Decode base64 data
-            byte[] imageBytes = Base64.getDecoder().decode(base64Data);
+            // Hot images are served from memory, also without a datastore read
+            ImageByteCache.CachedImage cached = firestoreImageService.getCachedImage(imageId, imageSize);
+            if (cached != null) {
+                if (cached.getEtag() != null && webRequest.checkNotModified(cached.getEtag())) {
+                    return notModified(cached.getEtag(), IMMUTABLE);
+                }
+                return imageResponse(cached.getContentType(), cached.getLength(), cached.getEtag(),
+                    IMMUTABLE, cached.openStream());
+            }
             
-            // Set appropriate headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(contentType));
+            ImageMetadata image = firestoreImageService.getImage(imageId);
+            logger.info("Image retrieved: {} ({})", imageId, imageSize.getParam());
+            
+            // A pending rendition is served by the original and must not be cached for long
+            CacheControl cacheControl = image.hasFinalRendition(imageSize) ? IMMUTABLE : PENDING_RENDITION;
+            String etag = firestoreImageService.getETag(image, imageSize);
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return notModified(etag, cacheControl);
+            }
             
-            return new ResponseEntity<>(imageBytes, headers, HttpStatus.OK);
+            // Headers for the rendition actually served
+            ImageVariant variant = image.variant(imageSize);
+            return imageResponse(variant != null ? variant.getContentType() : image.getContentType(),
+                variant != null ? variant.getSize() : image.getSize(), etag, cacheControl,
+                firestoreImageService.openImage(image, imageSize));
         } catch (ResponseStatusException e) {
             logger.error("Error retrieving image: {}", e.getReason());
             throw e;
@@ -154,4 +191,24 @@ public class ImageController {
                 "Failed to get image");
         }
     }
-} 
\ No newline at end of file
+    
+    // Streamed to the client chunk by chunk; the stream is closed once written
+    private static ResponseEntity<Resource> imageResponse(String contentType, long length, String etag,
+                                                          CacheControl cacheControl, InputStream content) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        headers.setContentLength(length);
+        headers.setCacheControl(cacheControl.getHeaderValue());
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+        return new ResponseEntity<>(new InputStreamResource(content), headers, HttpStatus.OK);
+    }
+    
+    private static ResponseEntity<Resource> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .build();
+    }
+}
\ No newline at end of file
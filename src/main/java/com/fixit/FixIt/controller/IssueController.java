@@ -1,10 +1,13 @@
 package com.fixit.FixIt.controller;
 
 import com.fixit.FixIt.dto.CreateIssueRequest;
+import com.fixit.FixIt.dto.GeoQueryResult;
+import com.fixit.FixIt.dto.IssueCluster;
 import com.fixit.FixIt.dto.PaginatedResponse;
 import com.fixit.FixIt.dto.UpdateIssueStatusRequest;
 import com.fixit.FixIt.dto.UpvoteIssueRequest;
 import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.service.IssueGeoService;
 import com.fixit.FixIt.service.IssueService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -13,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,9 +25,11 @@ import java.util.Map;
 public class IssueController {
 
     private final IssueService issueService;
+    private final IssueGeoService issueGeoService;
     
-    public IssueController(IssueService issueService) {
+    public IssueController(IssueService issueService, IssueGeoService issueGeoService) {
         this.issueService = issueService;
+        this.issueGeoService = issueGeoService;
     }
     
     @PostMapping
@@ -55,9 +61,12 @@ public class IssueController {
      * @param minUpvotes Filter issues with at least this many upvotes
      * @param startDate Filter issues created on or after this date (format: yyyy-MM-dd)
      * @param endDate Filter issues created on or before this date (format: yyyy-MM-dd)
-     * @param sort Sort order: "newest", "oldest", "most-upvoted", "least-upvoted", "recently-updated"
+     * @param sort Sort order: "newest", "oldest", "most-upvoted", "least-upvoted", "recently-updated",
+     *             or "relevance" (search results only, page mode)
      * @param page Page number (1-based)
      * @param size Page size
+     * @param cursor Switches to cursor pagination when present: pass an empty value for the
+     *               first page, then the nextCursor of the previous response. page is ignored.
      * @return Paginated list of issues
      */
     @GetMapping
@@ -71,9 +80,14 @@ public class IssueController {
             @RequestParam(required = false) String endDate,
             @RequestParam(required = false, defaultValue = "newest") String sort,
             @RequestParam(required = false, defaultValue = "1") int page,
-            @RequestParam(required = false, defaultValue = "10") int size) {
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         try {
-            PaginatedResponse<Issue> paginatedResponse = issueService.getIssues(
+            PaginatedResponse<Issue> paginatedResponse = cursor != null
+                ? issueService.getIssuesByCursor(
+                    status, location, reporterUid, searchTerm, minUpvotes, 
+                    startDate, endDate, sort, cursor, size)
+                : issueService.getIssues(
                     status, location, reporterUid, searchTerm, minUpvotes, 
                     startDate, endDate, sort, page, size);
             
@@ -91,6 +105,105 @@ public class IssueController {
         }
     }
     
+    /**
+     * Get issues within a radius of a point, nearest first
+     * 
+     * @param lat Latitude of the centre
+     * @param lng Longitude of the centre
+     * @param radiusKm Search radius in kilometres (max 50)
+     * @param status Optional status filter
+     * @param limit Maximum number of issues to return
+     * @return Issues ordered by distance
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<Map<String, Object>> getNearbyIssues(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(required = false, defaultValue = "5") double radiusKm,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false, defaultValue = "100") int limit) {
+        try {
+            GeoQueryResult result = issueGeoService.findNearby(lat, lng, radiusKm, status, limit);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "success");
+            response.put("data", result.getIssues());
+            if (result.isTruncated()) {
+                response.put("truncated", true);
+            }
+            
+            return ResponseEntity.ok(response);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                .body(Map.of("status", "error", "message", e.getReason()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("status", "error", "message", "Failed to fetch nearby issues"));
+        }
+    }
+    
+    /**
+     * Get issues inside a map bounding box, newest first
+     */
+    @GetMapping("/within")
+    public ResponseEntity<Map<String, Object>> getIssuesWithinBounds(
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false, defaultValue = "100") int limit) {
+        try {
+            GeoQueryResult result = issueGeoService.findWithinBounds(minLat, minLng, maxLat, maxLng, status, limit);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "success");
+            response.put("data", result.getIssues());
+            if (result.isTruncated()) {
+                response.put("truncated", true);
+            }
+            
+            return ResponseEntity.ok(response);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                .body(Map.of("status", "error", "message", e.getReason()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("status", "error", "message", "Failed to fetch issues"));
+        }
+    }
+    
+    /**
+     * Get pre-aggregated issue clusters for a map viewport
+     * 
+     * @param zoom Web map zoom level (0-22); higher zooms return smaller clusters
+     * @return One cluster per grid cell with its count, centroid and status breakdown
+     */
+    @GetMapping("/clusters")
+    public ResponseEntity<Map<String, Object>> getIssueClusters(
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @RequestParam int zoom,
+            @RequestParam(required = false) String status) {
+        try {
+            List<IssueCluster> clusters = issueGeoService.getClusters(minLat, minLng, maxLat, maxLng, zoom, status);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "success");
+            response.put("data", clusters);
+            
+            return ResponseEntity.ok(response);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                .body(Map.of("status", "error", "message", e.getReason()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("status", "error", "message", "Failed to fetch issue clusters"));
+        }
+    }
+    
     @GetMapping("/{issueId}")
     public ResponseEntity<Map<String, Object>> getIssueById(@PathVariable String issueId) {
         try {
@@ -1,5 +1,8 @@
 package com.fixit.FixIt.dto;
 
+import com.fixit.FixIt.model.AdminStats;
+import com.fixit.FixIt.util.AppConstants;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -11,11 +14,11 @@ public class AdminAuthResponse {
     private String location;
     private String role;
     private Map<String, Boolean> permissions;
-    private Map<String, Object> stats;
+    private AdminStats stats;
     
     public AdminAuthResponse() {
         this.permissions = new HashMap<>();
-        this.stats = new HashMap<>();
+        this.stats = new AdminStats();
     }
     
     public AdminAuthResponse(String token, String uid, String name, String phoneNumber, String location) {
@@ -24,9 +27,9 @@ public class AdminAuthResponse {
         this.name = name;
         this.phoneNumber = phoneNumber;
         this.location = location;
-        this.role = "ADMIN";
+        this.role = AppConstants.ROLE_ADMIN;
         this.permissions = new HashMap<>();
-        this.stats = new HashMap<>();
+        this.stats = new AdminStats();
     }
     
     // Getters and Setters
@@ -86,11 +89,11 @@ public class AdminAuthResponse {
         this.permissions = permissions;
     }
     
-    public Map<String, Object> getStats() {
+    public AdminStats getStats() {
         return stats;
     }
     
-    public void setStats(Map<String, Object> stats) {
+    public void setStats(AdminStats stats) {
         this.stats = stats;
     }
 } 
\ No newline at end of file
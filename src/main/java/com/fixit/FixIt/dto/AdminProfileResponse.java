@@ -1,5 +1,11 @@
 package com.fixit.FixIt.dto;
 
+import com.fixit.FixIt.model.AdminCategoryStats;
+import com.fixit.FixIt.model.AdminLocationStats;
+import com.fixit.FixIt.model.AdminPerformanceMetrics;
+import com.fixit.FixIt.model.AdminStats;
+import com.fixit.FixIt.model.AdminTimeMetrics;
+
 import java.util.Date;
 import java.util.Map;
 
@@ -13,11 +19,11 @@ public class AdminProfileResponse {
     private Date lastLogin;
     private String role;
     private Map<String, Boolean> permissions;
-    private Map<String, Object> stats;
-    private Map<String, Object> performanceMetrics;
-    private Map<String, Object> timeMetrics;
-    private Map<String, Object> categoryStats;
-    private Map<String, Object> locationStats;
+    private AdminStats stats;
+    private AdminPerformanceMetrics performanceMetrics;
+    private AdminTimeMetrics timeMetrics;
+    private AdminCategoryStats categoryStats;
+    private AdminLocationStats locationStats;
     
     public AdminProfileResponse() {
     }
@@ -95,43 +101,43 @@ public class AdminProfileResponse {
         this.permissions = permissions;
     }
     
-    public Map<String, Object> getStats() {
+    public AdminStats getStats() {
         return stats;
     }
     
-    public void setStats(Map<String, Object> stats) {
+    public void setStats(AdminStats stats) {
         this.stats = stats;
     }
     
-    public Map<String, Object> getPerformanceMetrics() {
+    public AdminPerformanceMetrics getPerformanceMetrics() {
         return performanceMetrics;
     }
     
-    public void setPerformanceMetrics(Map<String, Object> performanceMetrics) {
+    public void setPerformanceMetrics(AdminPerformanceMetrics performanceMetrics) {
         this.performanceMetrics = performanceMetrics;
     }
     
-    public Map<String, Object> getTimeMetrics() {
+    public AdminTimeMetrics getTimeMetrics() {
         return timeMetrics;
     }
     
-    public void setTimeMetrics(Map<String, Object> timeMetrics) {
+    public void setTimeMetrics(AdminTimeMetrics timeMetrics) {
         this.timeMetrics = timeMetrics;
     }
     
-    public Map<String, Object> getCategoryStats() {
+    public AdminCategoryStats getCategoryStats() {
         return categoryStats;
     }
     
-    public void setCategoryStats(Map<String, Object> categoryStats) {
+    public void setCategoryStats(AdminCategoryStats categoryStats) {
         this.categoryStats = categoryStats;
     }
     
-    public Map<String, Object> getLocationStats() {
+    public AdminLocationStats getLocationStats() {
         return locationStats;
     }
     
-    public void setLocationStats(Map<String, Object> locationStats) {
+    public void setLocationStats(AdminLocationStats locationStats) {
         this.locationStats = locationStats;
     }
 } 
\ No newline at end of file
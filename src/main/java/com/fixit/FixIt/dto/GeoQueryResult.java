@@ -0,0 +1,27 @@
+package com.fixit.FixIt.dto;
+
+import com.fixit.FixIt.model.Issue;
+
+import java.util.List;
+
+/**
+ * Issues found by a location query. Truncated is set when a dense area hit the
+ * query's scan limits, so issues inside the area may be missing.
+ */
+public class GeoQueryResult {
+    private List<Issue> issues;
+    private boolean truncated;
+
+    public GeoQueryResult(List<Issue> issues, boolean truncated) {
+        this.issues = issues;
+        this.truncated = truncated;
+    }
+
+    public List<Issue> getIssues() {
+        return issues;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
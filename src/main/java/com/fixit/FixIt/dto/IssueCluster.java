@@ -0,0 +1,42 @@
+package com.fixit.FixIt.dto;
+
+import java.util.Map;
+
+/**
+ * Aggregated issues for one map grid cell.
+ */
+public class IssueCluster {
+    private String cell;
+    private double latitude;
+    private double longitude;
+    private int count;
+    private Map<String, Integer> statusCounts;
+
+    public IssueCluster(String cell, double latitude, double longitude, int count, Map<String, Integer> statusCounts) {
+        this.cell = cell;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.count = count;
+        this.statusCounts = statusCounts;
+    }
+
+    public String getCell() {
+        return cell;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Map<String, Integer> getStatusCounts() {
+        return statusCounts;
+    }
+}
@@ -1,49 +1,98 @@
 package com.fixit.FixIt.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PaginatedResponse<T> {
     private List<T> items;
-    private int totalItems;
-    private int currentPage;
-    private int totalPages;
-    
+    private Integer totalItems;
+    private Integer currentPage;
+    private Integer totalPages;
+
+    // Cursor mode only: token for the next page and whether one exists
+    private String nextCursor;
+    private Boolean hasMore;
+
+    // Set when a scan stopped at its document budget: totals count only the
+    // scanned part, and a cursor page may hold fewer items than requested
+    private Boolean truncated;
+
     public PaginatedResponse(List<T> items, int totalItems, int currentPage, int pageSize) {
         this.items = items;
         this.totalItems = totalItems;
         this.currentPage = currentPage;
         this.totalPages = pageSize > 0 ? (int) Math.ceil((double) totalItems / pageSize) : 0;
     }
-    
+
+    private PaginatedResponse(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    /**
+     * Creates a cursor-mode page. Totals are not computed in this mode, so
+     * the page-number fields are left out of the response.
+     */
+    public static <T> PaginatedResponse<T> ofCursor(List<T> items, String nextCursor) {
+        return new PaginatedResponse<>(items, nextCursor);
+    }
+
     public List<T> getItems() {
         return items;
     }
-    
+
     public void setItems(List<T> items) {
         this.items = items;
     }
-    
-    public int getTotalItems() {
+
+    public Integer getTotalItems() {
         return totalItems;
     }
-    
-    public void setTotalItems(int totalItems) {
+
+    public void setTotalItems(Integer totalItems) {
         this.totalItems = totalItems;
     }
-    
-    public int getCurrentPage() {
+
+    public Integer getCurrentPage() {
         return currentPage;
     }
-    
-    public void setCurrentPage(int currentPage) {
+
+    public void setCurrentPage(Integer currentPage) {
         this.currentPage = currentPage;
     }
-    
-    public int getTotalPages() {
+
+    public Integer getTotalPages() {
         return totalPages;
     }
-    
-    public void setTotalPages(int totalPages) {
+
+    public void setTotalPages(Integer totalPages) {
         this.totalPages = totalPages;
     }
-} 
\ No newline at end of file
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Boolean getTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(Boolean truncated) {
+        this.truncated = truncated;
+    }
+}
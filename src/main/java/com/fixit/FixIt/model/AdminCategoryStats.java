@@ -0,0 +1,37 @@
+package com.fixit.FixIt.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Handled issue counts per issue type, priority and severity.
+ */
+public class AdminCategoryStats {
+    private Map<String, Long> byIssueType = new HashMap<>();
+    private Map<String, Long> byPriority = new HashMap<>();
+    private Map<String, Long> bySeverity = new HashMap<>();
+
+    public Map<String, Long> getByIssueType() {
+        return byIssueType;
+    }
+
+    public void setByIssueType(Map<String, Long> byIssueType) {
+        this.byIssueType = byIssueType;
+    }
+
+    public Map<String, Long> getByPriority() {
+        return byPriority;
+    }
+
+    public void setByPriority(Map<String, Long> byPriority) {
+        this.byPriority = byPriority;
+    }
+
+    public Map<String, Long> getBySeverity() {
+        return bySeverity;
+    }
+
+    public void setBySeverity(Map<String, Long> bySeverity) {
+        this.bySeverity = bySeverity;
+    }
+}
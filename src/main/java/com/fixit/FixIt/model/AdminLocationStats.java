@@ -0,0 +1,37 @@
+package com.fixit.FixIt.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Handled issue counts per district, city and hotspot area.
+ */
+public class AdminLocationStats {
+    private Map<String, Long> issuesByDistrict = new HashMap<>();
+    private Map<String, Long> issuesByCity = new HashMap<>();
+    private Map<String, Long> hotspotAreas = new HashMap<>();
+
+    public Map<String, Long> getIssuesByDistrict() {
+        return issuesByDistrict;
+    }
+
+    public void setIssuesByDistrict(Map<String, Long> issuesByDistrict) {
+        this.issuesByDistrict = issuesByDistrict;
+    }
+
+    public Map<String, Long> getIssuesByCity() {
+        return issuesByCity;
+    }
+
+    public void setIssuesByCity(Map<String, Long> issuesByCity) {
+        this.issuesByCity = issuesByCity;
+    }
+
+    public Map<String, Long> getHotspotAreas() {
+        return hotspotAreas;
+    }
+
+    public void setHotspotAreas(Map<String, Long> hotspotAreas) {
+        this.hotspotAreas = hotspotAreas;
+    }
+}
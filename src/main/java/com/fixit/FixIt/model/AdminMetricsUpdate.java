@@ -0,0 +1,107 @@
+package com.fixit.FixIt.model;
+
+import com.fixit.FixIt.util.LocationUtil;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The field-path increments that record one issue status change in an admin's
+ * metrics. Only the counters that change are written, so the cost of an update
+ * does not depend on how large the admin's category, location or time maps are.
+ */
+public final class AdminMetricsUpdate {
+
+    // Issues closed within this many hours count as SLA compliant
+    private static final double SLA_HOURS = 24.0;
+
+    private final Map<FieldPath, Object> updates = new LinkedHashMap<>();
+
+    private AdminMetricsUpdate() {
+    }
+
+    /**
+     * Builds the update for an issue moving from previousStatus to newStatus.
+     * No update is produced when the status does not change.
+     */
+    public static AdminMetricsUpdate forStatusChange(Issue issue, IssueStatus previousStatus,
+                                                     IssueStatus newStatus, Date changedAt) {
+        AdminMetricsUpdate update = new AdminMetricsUpdate();
+        if (previousStatus == newStatus) {
+            return update;
+        }
+
+        boolean handled = newStatus == IssueStatus.RESOLVED
+            || newStatus == IssueStatus.CLOSED
+            || newStatus == IssueStatus.REJECTED;
+        if (handled) {
+            String counter = newStatus == IssueStatus.RESOLVED ? "issuesResolved"
+                : newStatus == IssueStatus.CLOSED ? "issuesClosed" : "issuesRejected";
+            update.increment(1, "stats", counter);
+            update.increment(1, "stats", "totalIssuesHandled");
+            if (previousStatus == IssueStatus.IN_PROGRESS) {
+                update.increment(-1, "stats", "issuesInProgress");
+            }
+        } else if (newStatus == IssueStatus.IN_PROGRESS) {
+            update.increment(1, "stats", "issuesInProgress");
+        }
+
+        if (newStatus != IssueStatus.RESOLVED && newStatus != IssueStatus.CLOSED) {
+            return update;
+        }
+
+        if (issue.getCreatedAt() != null) {
+            double hoursOpen = (changedAt.getTime() - issue.getCreatedAt().getTime()) / (1000.0 * 60 * 60);
+            if (newStatus == IssueStatus.RESOLVED) {
+                update.increment(1, "performanceMetrics", "resolutionSamples");
+                update.updates.put(FieldPath.of("performanceMetrics", "totalResolutionHours"),
+                    FieldValue.increment(hoursOpen));
+            }
+            update.increment(1, "performanceMetrics", "slaEligibleIssues");
+            if (hoursOpen <= SLA_HOURS) {
+                update.increment(1, "performanceMetrics", "slaCompliantIssues");
+            }
+        }
+
+        update.increment(1, "categoryStats", "byIssueType", issue.getType());
+        update.increment(1, "categoryStats", "byPriority", issue.getPriority());
+        if ("HIGH".equals(issue.getPriority())) {
+            update.increment(1, "stats", "highPriorityIssuesHandled");
+        }
+
+        update.increment(1, "locationStats", "issuesByDistrict", LocationUtil.extractDistrict(issue.getLocation()));
+        update.increment(1, "locationStats", "issuesByCity", LocationUtil.extractCity(issue.getLocation()));
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(changedAt);
+        int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+        update.increment(1, "timeMetrics", "peakHours", String.format("%tH", changedAt));
+        update.increment(1, "timeMetrics",
+            dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY ? "weekendIssues" : "weekdayIssues");
+        return update;
+    }
+
+    public boolean isEmpty() {
+        return updates.isEmpty();
+    }
+
+    /**
+     * Field paths and FieldValue.increment values, in the order they were added.
+     */
+    public Map<FieldPath, Object> getFieldUpdates() {
+        return Collections.unmodifiableMap(updates);
+    }
+
+    // Field paths rather than dotted strings, since map keys come from issue data
+    private void increment(long delta, String... path) {
+        String key = path[path.length - 1];
+        if (key != null && !key.isEmpty()) {
+            updates.put(FieldPath.of(path), FieldValue.increment(delta));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.fixit.FixIt.model;
+
+import com.google.cloud.firestore.annotation.Exclude;
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
+
+/**
+ * Performance metrics for an admin. Means are stored as a running sum and a
+ * sample count so both can be updated with increments.
+ */
+@IgnoreExtraProperties
+public class AdminPerformanceMetrics {
+    private long resolutionSamples;
+    private double totalResolutionHours;
+    private long slaEligibleIssues;
+    private long slaCompliantIssues;
+    private long issuesSolvedFirstAttempt;
+    private double reopenRate;
+    private double userSatisfactionScore;
+    private double avgResponseTimeInMinutes;
+    private double escalationRate;
+
+    public long getResolutionSamples() {
+        return resolutionSamples;
+    }
+
+    public void setResolutionSamples(long resolutionSamples) {
+        this.resolutionSamples = resolutionSamples;
+    }
+
+    public double getTotalResolutionHours() {
+        return totalResolutionHours;
+    }
+
+    public void setTotalResolutionHours(double totalResolutionHours) {
+        this.totalResolutionHours = totalResolutionHours;
+    }
+
+    public long getSlaEligibleIssues() {
+        return slaEligibleIssues;
+    }
+
+    public void setSlaEligibleIssues(long slaEligibleIssues) {
+        this.slaEligibleIssues = slaEligibleIssues;
+    }
+
+    public long getSlaCompliantIssues() {
+        return slaCompliantIssues;
+    }
+
+    public void setSlaCompliantIssues(long slaCompliantIssues) {
+        this.slaCompliantIssues = slaCompliantIssues;
+    }
+
+    public long getIssuesSolvedFirstAttempt() {
+        return issuesSolvedFirstAttempt;
+    }
+
+    public void setIssuesSolvedFirstAttempt(long issuesSolvedFirstAttempt) {
+        this.issuesSolvedFirstAttempt = issuesSolvedFirstAttempt;
+    }
+
+    public double getReopenRate() {
+        return reopenRate;
+    }
+
+    public void setReopenRate(double reopenRate) {
+        this.reopenRate = reopenRate;
+    }
+
+    public double getUserSatisfactionScore() {
+        return userSatisfactionScore;
+    }
+
+    public void setUserSatisfactionScore(double userSatisfactionScore) {
+        this.userSatisfactionScore = userSatisfactionScore;
+    }
+
+    public double getAvgResponseTimeInMinutes() {
+        return avgResponseTimeInMinutes;
+    }
+
+    public void setAvgResponseTimeInMinutes(double avgResponseTimeInMinutes) {
+        this.avgResponseTimeInMinutes = avgResponseTimeInMinutes;
+    }
+
+    public double getEscalationRate() {
+        return escalationRate;
+    }
+
+    public void setEscalationRate(double escalationRate) {
+        this.escalationRate = escalationRate;
+    }
+
+    @Exclude
+    public double getAverageResolutionTimeInHours() {
+        return resolutionSamples > 0 ? totalResolutionHours / resolutionSamples : 0.0;
+    }
+
+    @Exclude
+    public double getSlaComplianceRate() {
+        return slaEligibleIssues > 0 ? (double) slaCompliantIssues / slaEligibleIssues * 100.0 : 0.0;
+    }
+}
@@ -0,0 +1,84 @@
+package com.fixit.FixIt.model;
+
+import com.google.cloud.firestore.annotation.Exclude;
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
+
+/**
+ * Status change counters for an admin. Every field is updated with
+ * FieldValue.increment; rates are derived on read.
+ */
+@IgnoreExtraProperties
+public class AdminStats {
+    private long issuesResolved;
+    private long issuesClosed;
+    private long issuesRejected;
+    private long totalIssuesHandled;
+    private long issuesInProgress;
+    private long highPriorityIssuesHandled;
+
+    public long getIssuesResolved() {
+        return issuesResolved;
+    }
+
+    public void setIssuesResolved(long issuesResolved) {
+        this.issuesResolved = issuesResolved;
+    }
+
+    public long getIssuesClosed() {
+        return issuesClosed;
+    }
+
+    public void setIssuesClosed(long issuesClosed) {
+        this.issuesClosed = issuesClosed;
+    }
+
+    public long getIssuesRejected() {
+        return issuesRejected;
+    }
+
+    public void setIssuesRejected(long issuesRejected) {
+        this.issuesRejected = issuesRejected;
+    }
+
+    public long getTotalIssuesHandled() {
+        return totalIssuesHandled;
+    }
+
+    public void setTotalIssuesHandled(long totalIssuesHandled) {
+        this.totalIssuesHandled = totalIssuesHandled;
+    }
+
+    public long getIssuesInProgress() {
+        return issuesInProgress;
+    }
+
+    public void setIssuesInProgress(long issuesInProgress) {
+        this.issuesInProgress = issuesInProgress;
+    }
+
+    public long getHighPriorityIssuesHandled() {
+        return highPriorityIssuesHandled;
+    }
+
+    public void setHighPriorityIssuesHandled(long highPriorityIssuesHandled) {
+        this.highPriorityIssuesHandled = highPriorityIssuesHandled;
+    }
+
+    /**
+     * Percentage of handled issues that were resolved.
+     */
+    @Exclude
+    public double getApprovalRate() {
+        return totalIssuesHandled > 0 ? (double) issuesResolved / totalIssuesHandled * 100.0 : 0.0;
+    }
+
+    /**
+     * Percentage of handled issues that were resolved or closed.
+     */
+    @Exclude
+    public double getCompletionRate() {
+        return totalIssuesHandled > 0 
+            ? (double) (issuesResolved + issuesClosed) / totalIssuesHandled * 100.0 
+            : 0.0;
+    }
+}
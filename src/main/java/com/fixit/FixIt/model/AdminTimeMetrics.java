@@ -0,0 +1,42 @@
+package com.fixit.FixIt.model;
+
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Activity histograms for an admin, keyed by hour of day (00-23), plus
+ * weekday and weekend counters. Every key set is bounded; activity per day
+ * is kept in the daily analytics rollups (byAdmin) instead.
+ */
+@IgnoreExtraProperties
+public class AdminTimeMetrics {
+    private Map<String, Long> peakHours = new HashMap<>();
+    private long weekdayIssues;
+    private long weekendIssues;
+
+    public Map<String, Long> getPeakHours() {
+        return peakHours;
+    }
+
+    public void setPeakHours(Map<String, Long> peakHours) {
+        this.peakHours = peakHours;
+    }
+
+    public long getWeekdayIssues() {
+        return weekdayIssues;
+    }
+
+    public void setWeekdayIssues(long weekdayIssues) {
+        this.weekdayIssues = weekdayIssues;
+    }
+
+    public long getWeekendIssues() {
+        return weekendIssues;
+    }
+
+    public void setWeekendIssues(long weekendIssues) {
+        this.weekendIssues = weekendIssues;
+    }
+}
@@ -0,0 +1,145 @@
+package com.fixit.FixIt.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pre-aggregated issue activity for one day (document id yyyy-MM-dd in the
+ * server's time zone, or yyyy-MM-dd_{shard} when the day is sharded). Counters
+ * are only ever incremented, by issue creation and by admin status changes.
+ */
+public class DailyAnalytics {
+    private String date;
+    private long created;
+    private long resolved;
+    private long closed;
+    private long rejected;
+    private long inProgress;
+    private long reopened;
+    // admin uid -> counter name -> count
+    private Map<String, Map<String, Long>> byAdmin = new HashMap<>();
+    // city (or location) -> counter name -> count
+    private Map<String, Map<String, Long>> byLocation = new HashMap<>();
+
+    public DailyAnalytics() {
+    }
+
+    public DailyAnalytics(String date) {
+        this.date = date;
+    }
+
+    /**
+     * Name of the counter a status change into the given status is recorded in.
+     */
+    public static String counterFor(IssueStatus status) {
+        switch (status) {
+            case RESOLVED:
+                return "resolved";
+            case CLOSED:
+                return "closed";
+            case REJECTED:
+                return "rejected";
+            case IN_PROGRESS:
+                return "inProgress";
+            default:
+                return "reopened";
+        }
+    }
+
+    /**
+     * Adds another shard's counts for the same day to this one.
+     */
+    public void add(DailyAnalytics other) {
+        created += other.created;
+        resolved += other.resolved;
+        closed += other.closed;
+        rejected += other.rejected;
+        inProgress += other.inProgress;
+        reopened += other.reopened;
+        addBreakdown(byAdmin, other.byAdmin);
+        addBreakdown(byLocation, other.byLocation);
+    }
+
+    private static void addBreakdown(Map<String, Map<String, Long>> target, Map<String, Map<String, Long>> source) {
+        if (source == null) {
+            return;
+        }
+        for (Map.Entry<String, Map<String, Long>> entry : source.entrySet()) {
+            Map<String, Long> counts = target.computeIfAbsent(entry.getKey(), key -> new HashMap<>());
+            entry.getValue().forEach((counter, count) -> counts.merge(counter, count, Long::sum));
+        }
+    }
+
+    // Getters and Setters
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getResolved() {
+        return resolved;
+    }
+
+    public void setResolved(long resolved) {
+        this.resolved = resolved;
+    }
+
+    public long getClosed() {
+        return closed;
+    }
+
+    public void setClosed(long closed) {
+        this.closed = closed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getInProgress() {
+        return inProgress;
+    }
+
+    public void setInProgress(long inProgress) {
+        this.inProgress = inProgress;
+    }
+
+    public long getReopened() {
+        return reopened;
+    }
+
+    public void setReopened(long reopened) {
+        this.reopened = reopened;
+    }
+
+    public Map<String, Map<String, Long>> getByAdmin() {
+        return byAdmin;
+    }
+
+    public void setByAdmin(Map<String, Map<String, Long>> byAdmin) {
+        this.byAdmin = byAdmin;
+    }
+
+    public Map<String, Map<String, Long>> getByLocation() {
+        return byLocation;
+    }
+
+    public void setByLocation(Map<String, Map<String, Long>> byLocation) {
+        this.byLocation = byLocation;
+    }
+}
@@ -0,0 +1,195 @@
+package com.fixit.FixIt.model;
+
+import com.google.cloud.firestore.annotation.Exclude;
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Image document under images/{id}. The bytes are stored separately in
+ * images/{id}/chunks/{index}; images uploaded before chunked storage keep
+ * their base64 bytes in the document's data field instead. Scaled-down
+ * renditions are listed in variants, keyed by ImageSize parameter.
+ *
+ * Images are content addressed: the ID is the SHA-256 of the original bytes,
+ * and refs holds the IDs of the issues using the image. Images stored before
+ * deduplication have a random ID and no refs.
+ *
+ * Every upload, including a duplicate one, holds the image until heldUntil,
+ * so an upload that is not attached to an issue yet survives the release of
+ * the image's last reference. Such a release only sets expiresAt, and the
+ * image is deleted after that time if it is still unused.
+ */
+@IgnoreExtraProperties
+public class ImageMetadata {
+
+    public static final String STORAGE_CHUNKS = "chunks";
+
+    private String id;
+    private String contentType;
+    private long size;
+    // Hex SHA-256 of the bytes, served as the image's ETag
+    private String sha256;
+    private int chunkCount;
+    // Random per upload and prefixed to chunk IDs, so chunks of a deleted image
+    // cannot be confused with those of the same content uploaded again
+    private String generation;
+    private List<String> refs;
+    // STORAGE_CHUNKS, or null for an image stored inline as base64
+    private String storage;
+    private String originalFilename;
+    private long createdAt;
+    // Epoch millis until which the image is kept without references
+    private long heldUntil;
+    // Epoch millis after which an unused image is deleted; null while it is in use
+    private Long expiresAt;
+    private Map<String, ImageVariant> variants = new HashMap<>();
+    // Set once renditions have been attempted; sizes the original already fits have no variant
+    private boolean derivativesGenerated;
+
+    public ImageMetadata() {
+    }
+
+    @Exclude
+    public boolean isChunked() {
+        return STORAGE_CHUNKS.equals(storage);
+    }
+
+    /**
+     * Prefix of this image's chunk IDs; renditions add their size name.
+     */
+    public String chunkPrefix() {
+        return generation != null ? generation + "-" : "";
+    }
+
+    /**
+     * The stored rendition for a size, or null if the size is served by the
+     * original image.
+     */
+    public ImageVariant variant(ImageSize size) {
+        return size.isDerived() && variants != null ? variants.get(size.getParam()) : null;
+    }
+
+    /**
+     * Whether the bytes served for a size are final. A derived size served by
+     * the original while its rendition is pending is not.
+     */
+    public boolean hasFinalRendition(ImageSize size) {
+        return !size.isDerived() || variant(size) != null || derivativesGenerated;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public String getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(String generation) {
+        this.generation = generation;
+    }
+
+    public List<String> getRefs() {
+        return refs;
+    }
+
+    public void setRefs(List<String> refs) {
+        this.refs = refs;
+    }
+
+    public String getStorage() {
+        return storage;
+    }
+
+    public void setStorage(String storage) {
+        this.storage = storage;
+    }
+
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    public void setOriginalFilename(String originalFilename) {
+        this.originalFilename = originalFilename;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getHeldUntil() {
+        return heldUntil;
+    }
+
+    public void setHeldUntil(long heldUntil) {
+        this.heldUntil = heldUntil;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Map<String, ImageVariant> getVariants() {
+        return variants;
+    }
+
+    public void setVariants(Map<String, ImageVariant> variants) {
+        this.variants = variants;
+    }
+
+    public boolean isDerivativesGenerated() {
+        return derivativesGenerated;
+    }
+
+    public void setDerivativesGenerated(boolean derivativesGenerated) {
+        this.derivativesGenerated = derivativesGenerated;
+    }
+}
@@ -0,0 +1,47 @@
+package com.fixit.FixIt.model;
+
+/**
+ * Renditions served by the image endpoint. Derived sizes are scaled down to
+ * fit a square of maxDimension pixels; FULL is the uploaded image.
+ */
+public enum ImageSize {
+    THUMBNAIL("thumbnail", 240),
+    MEDIUM("medium", 960),
+    FULL("full", 0);
+
+    private final String param;
+    private final int maxDimension;
+
+    ImageSize(String param, int maxDimension) {
+        this.param = param;
+        this.maxDimension = maxDimension;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public boolean isDerived() {
+        return maxDimension > 0;
+    }
+
+    /**
+     * Resolves the size request parameter, or null for an unknown value.
+     * A missing parameter means FULL.
+     */
+    public static ImageSize fromParam(String size) {
+        if (size == null || size.isEmpty()) {
+            return FULL;
+        }
+        for (ImageSize imageSize : values()) {
+            if (imageSize.param.equalsIgnoreCase(size)) {
+                return imageSize;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.fixit.FixIt.model;
+
+/**
+ * A scaled-down rendition of an image, stored in the image's chunks
+ * collection under chunk IDs prefixed with the size name.
+ */
+public class ImageVariant {
+
+    private String contentType;
+    private long size;
+    private String sha256;
+    private int chunkCount;
+    private int width;
+    private int height;
+
+    public ImageVariant() {
+    }
+
+    public ImageVariant(String contentType, int width, int height) {
+        this.contentType = contentType;
+        this.width = width;
+        this.height = height;
+    }
+
+    // Getters and Setters
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+}
@@ -11,6 +11,7 @@ public class Issue {
     private String location;
     private Double latitude;
     private Double longitude;
+    private String geohash;
     private String reporterUid;
     private String reporterName;
     private IssueStatus status;
@@ -86,6 +87,14 @@ public class Issue {
         this.longitude = longitude;
     }
     
+    public String getGeohash() {
+        return geohash;
+    }
+    
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+    
     public String getReporterUid() {
         return reporterUid;
     }
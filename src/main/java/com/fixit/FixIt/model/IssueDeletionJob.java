@@ -0,0 +1,118 @@
+package com.fixit.FixIt.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tombstone for a deleted issue, stored under issueDeletionJobs/{issueId}.
+ * It is written in the same batch that deletes the issue and records which
+ * cleanup phase has been completed, so the cleanup can resume after a crash.
+ */
+public class IssueDeletionJob {
+
+    /**
+     * Cleanup phases, run in declaration order.
+     */
+    public enum Phase {
+        UPVOTES,
+        UPVOTE_SHARDS,
+        STATUS_LOGS,
+        IMAGES
+    }
+
+    private String issueId;
+    private String reporterUid;
+    private List<String> imageIds = new ArrayList<>();
+    private Phase phase = Phase.UPVOTES;
+    private Date createdAt;
+    private Date updatedAt;
+    // Set while an instance is working on the job, so other instances leave it alone
+    private Date leaseUntil;
+    private int attempts;
+    private String lastError;
+
+    public IssueDeletionJob() {
+    }
+
+    public IssueDeletionJob(String issueId, String reporterUid, List<String> imageIds) {
+        this.issueId = issueId;
+        this.reporterUid = reporterUid;
+        this.imageIds = imageIds;
+        this.createdAt = new Date();
+        this.updatedAt = this.createdAt;
+    }
+
+    // Getters and Setters
+    public String getIssueId() {
+        return issueId;
+    }
+
+    public void setIssueId(String issueId) {
+        this.issueId = issueId;
+    }
+
+    public String getReporterUid() {
+        return reporterUid;
+    }
+
+    public void setReporterUid(String reporterUid) {
+        this.reporterUid = reporterUid;
+    }
+
+    public List<String> getImageIds() {
+        return imageIds;
+    }
+
+    public void setImageIds(List<String> imageIds) {
+        this.imageIds = imageIds;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(Phase phase) {
+        this.phase = phase;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Date getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Date leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
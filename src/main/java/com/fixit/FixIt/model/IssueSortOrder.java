@@ -0,0 +1,76 @@
+package com.fixit.FixIt.model;
+
+import com.fixit.FixIt.util.AppConstants;
+import com.google.cloud.firestore.Query;
+
+import java.util.Comparator;
+import java.util.Date;
+
+/**
+ * Sort modes accepted by the issue listing endpoints, mapped to the
+ * Firestore field and direction they are ordered by.
+ */
+public enum IssueSortOrder {
+    NEWEST(AppConstants.SORT_NEWEST, "createdAt", Query.Direction.DESCENDING),
+    OLDEST(AppConstants.SORT_OLDEST, "createdAt", Query.Direction.ASCENDING),
+    MOST_UPVOTED(AppConstants.SORT_MOST_UPVOTED, "upvotes", Query.Direction.DESCENDING),
+    LEAST_UPVOTED(AppConstants.SORT_LEAST_UPVOTED, "upvotes", Query.Direction.ASCENDING),
+    RECENTLY_UPDATED(AppConstants.SORT_RECENTLY_UPDATED, "updatedAt", Query.Direction.DESCENDING);
+
+    private final String param;
+    private final String field;
+    private final Query.Direction direction;
+
+    IssueSortOrder(String param, String field, Query.Direction direction) {
+        this.param = param;
+        this.field = field;
+        this.direction = direction;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Query.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * In-memory equivalent of the Firestore ordering, including the document ID
+     * tie-breaker, for issues that do not come from a query.
+     */
+    public Comparator<Issue> comparator() {
+        Comparator<Issue> byField;
+        switch (field) {
+            case "upvotes":
+                byField = Comparator.comparing(Issue::getUpvotes, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()));
+                break;
+            case "updatedAt":
+                byField = Comparator.comparing(Issue::getUpdatedAt, Comparator.nullsFirst(Comparator.<Date>naturalOrder()));
+                break;
+            case "createdAt":
+            default:
+                byField = Comparator.comparing(Issue::getCreatedAt, Comparator.nullsFirst(Comparator.<Date>naturalOrder()));
+                break;
+        }
+        Comparator<Issue> ordering = byField.thenComparing(Issue::getId, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+        return direction == Query.Direction.DESCENDING ? ordering.reversed() : ordering;
+    }
+
+    /**
+     * Resolves the sort request parameter, falling back to newest first
+     * for missing or unknown values (same as the old in-memory sort).
+     */
+    public static IssueSortOrder fromParam(String sort) {
+        for (IssueSortOrder order : values()) {
+            if (order.param.equals(sort)) {
+                return order;
+            }
+        }
+        return NEWEST;
+    }
+}
@@ -16,11 +16,20 @@ public class UserUpvote {
     }
 
     public UserUpvote(String userId, String issueId) {
+        this.id = documentId(userId, issueId);
         this.userId = userId;
         this.issueId = issueId;
         this.createdAt = new Date();
     }
 
+    /**
+     * Deterministic document ID, so a user's upvote on an issue is a point lookup
+     * and a second upvote collides with the first.
+     */
+    public static String documentId(String userId, String issueId) {
+        return userId + "_" + issueId;
+    }
+
     // Getters and setters
     public String getId() {
         return id;
@@ -1,10 +1,13 @@
 package com.fixit.FixIt.repository;
 
 import com.fixit.FixIt.model.Admin;
+import com.fixit.FixIt.model.Issue;
 import com.fixit.FixIt.model.IssueStatus;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Transaction;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 public interface AdminRepository {
@@ -38,21 +41,29 @@ public interface AdminRepository {
     boolean existsByUid(String uid);
     
     /**
-     * Update an admin's stats based on issue status change
-     * @param adminUid The admin's UID
+     * Get the document reference for an admin
+     * @param uid The admin's UID
+     * @return Reference to the admin document
+     */
+    DocumentReference getReference(String uid);
+    
+    /**
+     * Add an admin's stats and metrics updates for an issue status change to a
+     * transaction, as field-path increments (see AdminMetricsUpdate).
+     * @param transaction The transaction to write in
+     * @param adminDoc Snapshot of the admin read in the same transaction
+     * @param issue The issue after the status change
      * @param previousStatus The previous issue status
      * @param newStatus The new issue status
-     * @return The updated admin
      */
-    Admin updateStats(String adminUid, IssueStatus previousStatus, IssueStatus newStatus);
+    void stageStatusChange(Transaction transaction, DocumentSnapshot adminDoc, Issue issue,
+                           IssueStatus previousStatus, IssueStatus newStatus);
     
     /**
-     * Get analytics data for all admins
-     * @param startDate Start date in ISO format (yyyy-MM-dd)
-     * @param endDate End date in ISO format (yyyy-MM-dd) 
-     * @return Map containing analytics data
+     * Count all admins
+     * @return The number of admin documents
      */
-    Map<String, Object> getAnalytics(String startDate, String endDate);
+    long count();
     
     /**
      * Get all admins
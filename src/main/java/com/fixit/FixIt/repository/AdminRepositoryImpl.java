@@ -1,17 +1,23 @@
 package com.fixit.FixIt.repository;
 
 import com.fixit.FixIt.model.Admin;
+import com.fixit.FixIt.model.AdminMetricsUpdate;
+import com.fixit.FixIt.model.Issue;
 import com.fixit.FixIt.model.IssueStatus;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import com.google.firebase.cloud.FirestoreClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Repository
@@ -19,6 +25,21 @@ public class AdminRepositoryImpl implements AdminRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(AdminRepositoryImpl.class);
     private static final String COLLECTION_NAME = "admins";
+    // Written by the map-based metrics model and no longer read
+    private static final List<String> LEGACY_METRIC_FIELDS = List.of(
+        "stats.approvalRate",
+        "performanceMetrics.averageResolutionTimeInHours",
+        "performanceMetrics.slaComplianceRate",
+        "timeMetrics.issuesPerDay",
+        "timeMetrics.monthlyActivity",
+        "timeMetrics.weekdayVsWeekend");
+    
+    private final boolean migrateMetricsOnStartup;
+    
+    public AdminRepositoryImpl(
+            @Value("${admin.metrics.migrate-on-startup:false}") boolean migrateMetricsOnStartup) {
+        this.migrateMetricsOnStartup = migrateMetricsOnStartup;
+    }
     
     @Override
     public Admin save(Admin admin) {
@@ -99,60 +120,40 @@ public class AdminRepositoryImpl implements AdminRepository {
     }
 
     @Override
-    public Admin updateStats(String adminUid, IssueStatus previousStatus, IssueStatus newStatus) {
-        try {
-            Optional<Admin> adminOpt = findByUid(adminUid);
-            if (!adminOpt.isPresent()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
-                    "Admin not found with uid: " + adminUid);
-            }
-            
-            Admin admin = adminOpt.get();
-            admin.updateStats(previousStatus, newStatus);
-            
-            return save(admin);
-        } catch (ResponseStatusException e) {
-            throw e;
-        } catch (Exception e) {
-            logger.error("Error updating admin stats: {}", e.getMessage(), e);
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
-                "Failed to update admin stats: " + e.getMessage());
-        }
+    public DocumentReference getReference(String uid) {
+        return FirestoreClient.getFirestore().collection(COLLECTION_NAME).document(uid);
     }
 
     @Override
-    public Map<String, Object> getAnalytics(String startDate, String endDate) {
-        // This would normally query the database for analytics data
-        // For now, we'll return some dummy data
-        Map<String, Object> analytics = new HashMap<>();
-        
-        analytics.put("totalAdmins", 5);
-        analytics.put("totalIssuesResolved", 120);
-        analytics.put("totalIssuesClosed", 30);
-        analytics.put("totalIssuesRejected", 15);
-        analytics.put("averageApprovalRate", 72.7);
-        
-        // Add some dummy time-series data
-        List<Map<String, Object>> issuesByDay = new ArrayList<>();
-        
-        Map<String, Object> day1 = new HashMap<>();
-        day1.put("date", "2025-04-01");
-        day1.put("resolved", 12);
-        day1.put("closed", 3);
-        day1.put("rejected", 1);
-        
-        Map<String, Object> day2 = new HashMap<>();
-        day2.put("date", "2025-04-02");
-        day2.put("resolved", 15);
-        day2.put("closed", 4);
-        day2.put("rejected", 2);
-        
-        issuesByDay.add(day1);
-        issuesByDay.add(day2);
-        
-        analytics.put("issuesByDay", issuesByDay);
+    public void stageStatusChange(Transaction transaction, DocumentSnapshot adminDoc, Issue issue,
+                                  IssueStatus previousStatus, IssueStatus newStatus) {
+        AdminMetricsUpdate update = AdminMetricsUpdate.forStatusChange(issue, previousStatus, newStatus, new Date());
+        if (update.isEmpty()) {
+            return;
+        }
         
-        return analytics;
+        Iterator<Map.Entry<FieldPath, Object>> entries = update.getFieldUpdates().entrySet().iterator();
+        Map.Entry<FieldPath, Object> first = entries.next();
+        List<Object> moreFieldsAndValues = new ArrayList<>();
+        while (entries.hasNext()) {
+            Map.Entry<FieldPath, Object> entry = entries.next();
+            moreFieldsAndValues.add(entry.getKey());
+            moreFieldsAndValues.add(entry.getValue());
+        }
+        transaction.update(adminDoc.getReference(), first.getKey(), first.getValue(), moreFieldsAndValues.toArray());
+    }
+
+    @Override
+    public long count() {
+        try {
+            Firestore firestore = FirestoreClient.getFirestore();
+            AggregateQuerySnapshot snapshot = firestore.collection(COLLECTION_NAME).count().get().get();
+            return snapshot.getCount();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error counting admins: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to count admins: " + e.getMessage());
+        }
     }
 
     @Override
@@ -200,4 +201,68 @@ public class AdminRepositoryImpl implements AdminRepository {
                 "Failed to delete admin: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateMetricsOnStartup) {
+            CompletableFuture.runAsync(this::migrateLegacyMetrics);
+        }
+    }
+
+    /**
+     * One-off conversion of admin documents written by the map-based metrics
+     * model. The stored mean resolution time becomes a sum and sample count
+     * for the issues resolved before the typed model, the SLA sample count is
+     * seeded from the resolved and closed counters, and the fields that are
+     * no longer read are deleted. Each admin is migrated in its own
+     * transaction and only while a legacy field is present, so running it
+     * again changes nothing.
+     */
+    public void migrateLegacyMetrics() {
+        Firestore firestore = FirestoreClient.getFirestore();
+        int migrated = 0;
+        try {
+            for (DocumentReference adminRef : firestore.collection(COLLECTION_NAME).listDocuments()) {
+                boolean changed = firestore.runTransaction(transaction -> {
+                    DocumentSnapshot document = transaction.get(adminRef).get();
+                    Map<String, Object> updates = new HashMap<>();
+                    for (String field : LEGACY_METRIC_FIELDS) {
+                        if (document.contains(field)) {
+                            updates.put(field, FieldValue.delete());
+                        }
+                    }
+                    if (updates.isEmpty()) {
+                        return false;
+                    }
+
+                    long resolved = longField(document, "stats.issuesResolved");
+                    Double averageHours = document.getDouble("performanceMetrics.averageResolutionTimeInHours");
+                    long legacyResolutions = resolved - longField(document, "performanceMetrics.resolutionSamples");
+                    if (averageHours != null && legacyResolutions > 0) {
+                        updates.put("performanceMetrics.resolutionSamples", FieldValue.increment(legacyResolutions));
+                        updates.put("performanceMetrics.totalResolutionHours",
+                            FieldValue.increment(averageHours * legacyResolutions));
+                    }
+                    long legacySlaSamples = resolved + longField(document, "stats.issuesClosed")
+                        - longField(document, "performanceMetrics.slaEligibleIssues");
+                    if (document.contains("performanceMetrics.slaComplianceRate") && legacySlaSamples > 0) {
+                        updates.put("performanceMetrics.slaEligibleIssues", FieldValue.increment(legacySlaSamples));
+                    }
+                    transaction.update(adminRef, updates);
+                    return true;
+                }).get();
+                if (changed) {
+                    migrated++;
+                }
+            }
+            logger.info("Migrated legacy metrics of {} admins", migrated);
+        } catch (Exception e) {
+            logger.error("Admin metrics migration failed after {} admins: {}", migrated, e.getMessage(), e);
+        }
+    }
+
+    private static long longField(DocumentSnapshot document, String field) {
+        Long value = document.getLong(field);
+        return value != null ? value : 0;
+    }
+}
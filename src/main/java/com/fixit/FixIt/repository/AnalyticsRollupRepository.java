@@ -0,0 +1,36 @@
+package com.fixit.FixIt.repository;
+
+import com.fixit.FixIt.model.DailyAnalytics;
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.model.StatusChangeLog;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteBatch;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AnalyticsRollupRepository {
+    
+    /**
+     * Add the rollup increments for a newly created issue to a batch
+     * @param batch The batch that creates the issue
+     * @param issue The new issue
+     */
+    void stageIssueCreated(WriteBatch batch, Issue issue);
+    
+    /**
+     * Add the rollup increments for an admin status change to a transaction
+     * @param transaction The transaction that writes the status change log
+     * @param log The status change log
+     * @param issue The issue after the status change
+     */
+    void stageStatusChange(Transaction transaction, StatusChangeLog log, Issue issue);
+    
+    /**
+     * Get the daily rollups for a date range, one document read per day and shard
+     * @param startDate First day, inclusive
+     * @param endDate Last day, inclusive
+     * @return One entry per day in order; days without activity have zero counts
+     */
+    List<DailyAnalytics> findByDateRange(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,129 @@
+package com.fixit.FixIt.repository;
+
+import com.fixit.FixIt.model.DailyAnalytics;
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.model.StatusChangeLog;
+import com.fixit.FixIt.util.AppConstants;
+import com.fixit.FixIt.util.LocationUtil;
+import com.google.cloud.firestore.*;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Daily analytics rollups, maintained with merge writes of FieldValue.increment
+ * in the same batch or transaction as the change they count.
+ *
+ * Every issue creation and status change of a day writes that day's rollup,
+ * and a single Firestore document sustains about one write per second. With
+ * analytics.rollup.shards greater than 1 each write goes to a random one of
+ * the day's shard documents ({date}_{n}) instead, raising the ceiling to about
+ * that many writes per second. Reads fetch every document of the requested
+ * days, sharded or not, with one document ID range query and sum the shards.
+ */
+@Repository
+public class AnalyticsRollupRepositoryImpl implements AnalyticsRollupRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsRollupRepositoryImpl.class);
+    private static final String COLLECTION_NAME = AppConstants.ANALYTICS_DAILY_COLLECTION;
+    
+    private final int shardCount;
+    
+    public AnalyticsRollupRepositoryImpl(@Value("${analytics.rollup.shards:1}") int shardCount) {
+        this.shardCount = shardCount;
+    }
+    
+    @Override
+    public void stageIssueCreated(WriteBatch batch, Issue issue) {
+        Date createdAt = issue.getCreatedAt() != null ? issue.getCreatedAt() : new Date();
+        String day = dayKey(createdAt);
+        
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("date", day);
+        updates.put("created", FieldValue.increment(1));
+        String location = LocationUtil.locationKey(issue.getLocation());
+        if (location != null) {
+            updates.put("byLocation", Map.of(location, Map.of("created", FieldValue.increment(1))));
+        }
+        batch.set(shardReference(day), updates, SetOptions.merge());
+    }
+    
+    @Override
+    public void stageStatusChange(Transaction transaction, StatusChangeLog log, Issue issue) {
+        if (log.getPreviousStatus() == log.getNewStatus()) {
+            return;
+        }
+        String day = dayKey(log.getChangedAt());
+        String counter = DailyAnalytics.counterFor(log.getNewStatus());
+        
+        // Nested maps rather than dotted paths, since the keys come from user data
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("date", day);
+        updates.put(counter, FieldValue.increment(1));
+        updates.put("byAdmin", Map.of(log.getChangedByAdminUid(), Map.of(counter, FieldValue.increment(1))));
+        String location = LocationUtil.locationKey(issue.getLocation());
+        if (location != null) {
+            updates.put("byLocation", Map.of(location, Map.of(counter, FieldValue.increment(1))));
+        }
+        transaction.set(shardReference(day), updates, SetOptions.merge());
+    }
+    
+    @Override
+    public List<DailyAnalytics> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        Map<String, DailyAnalytics> days = new LinkedHashMap<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            days.put(day.toString(), new DailyAnalytics(day.toString()));
+        }
+        if (days.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        try {
+            // "yyyy-MM-dd" and "yyyy-MM-dd_n" both sort before the next day's key
+            List<QueryDocumentSnapshot> documents = FirestoreClient.getFirestore().collection(COLLECTION_NAME)
+                .whereGreaterThanOrEqualTo(FieldPath.documentId(), startDate.toString())
+                .whereLessThan(FieldPath.documentId(), endDate.plusDays(1).toString())
+                .get().get().getDocuments();
+            for (QueryDocumentSnapshot document : documents) {
+                DailyAnalytics day = days.get(dayOf(document.getId()));
+                if (day != null) {
+                    day.add(document.toObject(DailyAnalytics.class));
+                }
+            }
+            return new ArrayList<>(days.values());
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error reading analytics rollups: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to read analytics: " + e.getMessage());
+        }
+    }
+    
+    private DocumentReference shardReference(String day) {
+        String id = shardCount > 1 ? day + "_" + ThreadLocalRandom.current().nextInt(shardCount) : day;
+        return FirestoreClient.getFirestore().collection(COLLECTION_NAME).document(id);
+    }
+    
+    private static String dayOf(String documentId) {
+        int separator = documentId.indexOf('_');
+        return separator < 0 ? documentId : documentId.substring(0, separator);
+    }
+    
+    // Same local-date key as the admin time metrics
+    private static String dayKey(Date date) {
+        return String.format("%tF", date);
+    }
+}
@@ -0,0 +1,98 @@
+package com.fixit.FixIt.repository;
+
+import com.fixit.FixIt.model.ImageMetadata;
+import com.fixit.FixIt.model.ImageSize;
+import com.fixit.FixIt.model.ImageVariant;
+import com.google.cloud.firestore.WriteBatch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImageRepository {
+
+    /**
+     * Store an image under its content hash, reading the content one chunk at a time
+     * @param imageId Hex SHA-256 of the content
+     * @param content Image bytes; not closed by this method
+     * @param contentType MIME type served with the image
+     * @param originalFilename Optional name of the uploaded file
+     * @param heldUntil Epoch millis until which the image is kept without references
+     * @return Metadata of the stored image, or of the existing image if the
+     *         same content was stored concurrently
+     */
+    ImageMetadata save(String imageId, InputStream content, String contentType, String originalFilename,
+                       long heldUntil) throws IOException;
+
+    /**
+     * Keep an existing image until the given time even if its last reference
+     * is released meanwhile.
+     * @param imageId The image ID
+     * @param heldUntil Epoch millis until which the image is kept
+     * @return false if the image does not exist
+     */
+    boolean hold(String imageId, long heldUntil);
+
+    /**
+     * Store a scaled-down rendition of an existing image and list it in the
+     * image's variants. Storing the same size again replaces it.
+     * @param metadata The image
+     * @param imageSize The derived size being stored
+     * @param variant Content type and dimensions of the rendition; size and chunk count are filled in
+     * @param content Encoded rendition bytes; not closed by this method
+     */
+    void saveVariant(ImageMetadata metadata, ImageSize imageSize, ImageVariant variant, InputStream content) throws IOException;
+
+    /**
+     * Record that an image's renditions have been generated, so they are not
+     * attempted again for sizes the original already fits
+     * @param imageId The image ID
+     */
+    void markDerivativesGenerated(String imageId);
+
+    /**
+     * Get an image's metadata without reading its bytes
+     * @param imageId The image ID
+     * @return The metadata, or empty if the image does not exist
+     */
+    Optional<ImageMetadata> findById(String imageId);
+
+    /**
+     * Open a stream over an image's bytes. Chunks are read on demand, so at
+     * most two chunks are held in memory at a time.
+     * @param metadata Metadata returned by findById
+     * @param imageSize Rendition to read; the original is read if it has not been stored
+     * @return Stream of the image bytes
+     */
+    InputStream openStream(ImageMetadata metadata, ImageSize imageSize);
+
+    /**
+     * Add an issue to the references of its images as part of a batch. The
+     * batch fails with NOT_FOUND if one of the images does not exist.
+     * @param batch The batch that writes the issue, or one committed before it
+     * @param issueId The issue ID
+     * @param imageIds IDs of images in the issue's imageUrls
+     */
+    void stageAddReferences(WriteBatch batch, String issueId, Collection<String> imageIds);
+
+    /**
+     * Remove an issue from an image's references, deleting the image and its
+     * chunks once no issue uses it. A held image is kept and expires when its
+     * hold ends. Images stored before deduplication belong to a single issue
+     * and are deleted straight away. Safe to repeat.
+     * @param imageId The image ID
+     * @param issueId The issue that no longer uses the image
+     * @return true if the image was deleted
+     */
+    boolean releaseReference(String imageId, String issueId);
+
+    /**
+     * Delete images whose hold ended after their last reference was released.
+     * Images attached to an issue or held again meanwhile are kept.
+     * @param limit Maximum number of images to examine
+     * @return IDs of the deleted images
+     */
+    List<String> deleteExpired(int limit);
+}
@@ -0,0 +1,481 @@
+package com.fixit.FixIt.repository;
+
+import com.fixit.FixIt.model.ImageMetadata;
+import com.fixit.FixIt.model.ImageSize;
+import com.fixit.FixIt.model.ImageVariant;
+import com.fixit.FixIt.util.AppConstants;
+import com.fixit.FixIt.util.FirestoreBulkDelete;
+import com.google.api.core.ApiFuture;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.*;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Images stored as a metadata document plus binary chunk documents, each well
+ * under Firestore's 1 MiB document limit. Uploads are read and written one
+ * batch of chunks at a time and downloads are streamed chunk by chunk, so an
+ * image is never held in memory as a whole. Chunk IDs start with the
+ * upload's generation, and renditions add their size name.
+ */
+@Repository
+public class ImageRepositoryImpl implements ImageRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageRepositoryImpl.class);
+    private static final String COLLECTION_NAME = AppConstants.IMAGES_COLLECTION;
+    private static final String CHUNKS_COLLECTION = "chunks";
+    private static final int CHUNK_SIZE = 512 * 1024;
+    // About 4 MiB per commit, below Firestore's 10 MiB request limit
+    private static final int CHUNKS_PER_BATCH = 8;
+
+    private Firestore getFirestore() {
+        return FirestoreClient.getFirestore();
+    }
+
+    @Override
+    public ImageMetadata save(String imageId, InputStream content, String contentType, String originalFilename,
+                              long heldUntil) throws IOException {
+        Firestore firestore = getFirestore();
+        DocumentReference imageRef = firestore.collection(COLLECTION_NAME).document(imageId);
+        String generation = UUID.randomUUID().toString().substring(0, 8);
+
+        ImageMetadata metadata = new ImageMetadata();
+        metadata.setId(imageId);
+        metadata.setGeneration(generation);
+        metadata.setRefs(new ArrayList<>());
+        metadata.setContentType(contentType);
+        metadata.setStorage(ImageMetadata.STORAGE_CHUNKS);
+        metadata.setOriginalFilename(originalFilename);
+        metadata.setHeldUntil(heldUntil);
+
+        ChunkWriter writer = new ChunkWriter(firestore, imageRef.collection(CHUNKS_COLLECTION), metadata.chunkPrefix());
+        boolean stored = false;
+        try {
+            writer.write(content);
+            metadata.setSize(writer.size);
+            metadata.setSha256(writer.sha256());
+            metadata.setChunkCount(writer.chunkCount);
+            metadata.setCreatedAt(System.currentTimeMillis());
+
+            // Written last, so an image is only visible once all of its chunks are
+            writer.batch.create(imageRef, metadata);
+            writer.batch.commit().get();
+            stored = true;
+            return metadata;
+        } catch (ExecutionException e) {
+            if (hasStatus(e, StatusCode.Code.ALREADY_EXISTS)) {
+                logger.debug("Image {} was stored concurrently, using the existing copy", imageId);
+                Optional<ImageMetadata> existing = hold(imageId, heldUntil) ? findById(imageId) : Optional.empty();
+                return existing.orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Image was deleted while being uploaded, please retry"));
+            }
+            logger.error("Error storing image: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to store image: " + e.getMessage());
+        } catch (InterruptedException e) {
+            logger.error("Error storing image: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to store image: " + e.getMessage());
+        } finally {
+            if (!stored && writer.chunkCount > 0) {
+                deleteChunksQuietly(imageRef, metadata.chunkPrefix());
+            }
+        }
+    }
+
+    @Override
+    public boolean hold(String imageId, long heldUntil) {
+        try {
+            getFirestore().collection(COLLECTION_NAME).document(imageId)
+                .update(Precondition.exists(true), "heldUntil", heldUntil).get();
+            return true;
+        } catch (ExecutionException e) {
+            if (hasStatus(e, StatusCode.Code.NOT_FOUND)) {
+                return false;
+            }
+            logger.error("Error holding image {}: {}", imageId, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to store image: " + e.getMessage());
+        } catch (InterruptedException e) {
+            logger.error("Error holding image {}: {}", imageId, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to store image: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void saveVariant(ImageMetadata metadata, ImageSize imageSize, ImageVariant variant, InputStream content) throws IOException {
+        Firestore firestore = getFirestore();
+        DocumentReference imageRef = firestore.collection(COLLECTION_NAME).document(metadata.getId());
+        ChunkWriter writer = new ChunkWriter(firestore, imageRef.collection(CHUNKS_COLLECTION),
+            metadata.chunkPrefix() + imageSize.getParam() + "-");
+        try {
+            writer.write(content);
+            variant.setSize(writer.size);
+            variant.setSha256(writer.sha256());
+            variant.setChunkCount(writer.chunkCount);
+
+            // Fails if the image was deleted meanwhile; stray chunks are left to a later delete
+            writer.batch.update(imageRef, FieldPath.of("variants", imageSize.getParam()), variantData(variant));
+            writer.batch.commit().get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error storing {} variant of image {}: {}", imageSize.getParam(), metadata.getId(), e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to store image variant: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void markDerivativesGenerated(String imageId) {
+        try {
+            getFirestore().collection(COLLECTION_NAME).document(imageId)
+                .update("derivativesGenerated", true).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error updating image {}: {}", imageId, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to update image: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<ImageMetadata> findById(String imageId) {
+        try {
+            DocumentSnapshot document = getFirestore().collection(COLLECTION_NAME).document(imageId).get().get();
+            if (!document.exists()) {
+                return Optional.empty();
+            }
+            ImageMetadata metadata = document.toObject(ImageMetadata.class);
+            if (!metadata.isChunked()) {
+                // Inline base64 image from before chunked storage
+                String data = document.getString("data");
+                metadata.setSize(data != null ? decodedLength(data) : 0);
+            }
+            return Optional.of(metadata);
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error finding image by id: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to retrieve image: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream openStream(ImageMetadata metadata, ImageSize imageSize) {
+        DocumentReference imageRef = getFirestore().collection(COLLECTION_NAME).document(metadata.getId());
+        ImageVariant variant = metadata.variant(imageSize);
+        if (variant != null) {
+            return new ChunkInputStream(imageRef.collection(CHUNKS_COLLECTION),
+                metadata.chunkPrefix() + imageSize.getParam() + "-", variant.getChunkCount());
+        }
+        if (metadata.isChunked()) {
+            return new ChunkInputStream(imageRef.collection(CHUNKS_COLLECTION),
+                metadata.chunkPrefix(), metadata.getChunkCount());
+        }
+        try {
+            String data = imageRef.get().get().getString("data");
+            return new ByteArrayInputStream(data != null ? Base64.getDecoder().decode(data) : new byte[0]);
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error reading inline image: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to retrieve image: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void stageAddReferences(WriteBatch batch, String issueId, Collection<String> imageIds) {
+        CollectionReference images = getFirestore().collection(COLLECTION_NAME);
+        for (String imageId : imageIds) {
+            batch.update(images.document(imageId), Precondition.exists(true),
+                "refs", FieldValue.arrayUnion(issueId));
+        }
+    }
+
+    @Override
+    public boolean releaseReference(String imageId, String issueId) {
+        DocumentReference imageRef = getFirestore().collection(COLLECTION_NAME).document(imageId);
+        try {
+            // Chunk prefix of the image if this was its last reference, else null
+            String released = getFirestore().runTransaction(transaction -> {
+                DocumentSnapshot document = transaction.get(imageRef).get();
+                if (!document.exists()) {
+                    return null;
+                }
+                ImageMetadata metadata = document.toObject(ImageMetadata.class);
+                List<String> refs = metadata.getRefs();
+                if (refs != null) {
+                    List<String> remaining = new ArrayList<>(refs);
+                    remaining.remove(issueId);
+                    if (!remaining.isEmpty()) {
+                        if (remaining.size() < refs.size()) {
+                            transaction.update(imageRef, "refs", FieldValue.arrayRemove(issueId));
+                        }
+                        return null;
+                    }
+                    if (metadata.getHeldUntil() > System.currentTimeMillis()) {
+                        // An upload of the same content may be about to be attached
+                        transaction.update(imageRef, "refs", FieldValue.arrayRemove(issueId),
+                            "expiresAt", metadata.getHeldUntil());
+                        return null;
+                    }
+                }
+                transaction.delete(imageRef);
+                return metadata.chunkPrefix();
+            }).get();
+
+            if (released == null) {
+                return false;
+            }
+            // The document is gone, so the chunks can no longer be reached. A re-upload
+            // of the same content writes chunks under a new generation prefix.
+            deleteChunks(imageRef, released);
+            return true;
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error releasing image {}: {}", imageId, e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to release image: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> deleteExpired(int limit) {
+        List<String> deleted = new ArrayList<>();
+        try {
+            List<QueryDocumentSnapshot> expired = getFirestore().collection(COLLECTION_NAME)
+                .whereLessThanOrEqualTo("expiresAt", System.currentTimeMillis())
+                .limit(limit)
+                .get().get().getDocuments();
+            for (QueryDocumentSnapshot candidate : expired) {
+                DocumentReference imageRef = candidate.getReference();
+                String released = getFirestore().runTransaction(transaction -> {
+                    DocumentSnapshot document = transaction.get(imageRef).get();
+                    if (!document.exists()) {
+                        return null;
+                    }
+                    ImageMetadata metadata = document.toObject(ImageMetadata.class);
+                    if (metadata.getRefs() != null && !metadata.getRefs().isEmpty()) {
+                        // Attached to an issue again
+                        transaction.update(imageRef, "expiresAt", FieldValue.delete());
+                        return null;
+                    }
+                    if (metadata.getHeldUntil() > System.currentTimeMillis()) {
+                        // Uploaded again, so give the new upload its full hold
+                        transaction.update(imageRef, "expiresAt", metadata.getHeldUntil());
+                        return null;
+                    }
+                    transaction.delete(imageRef);
+                    return metadata.chunkPrefix();
+                }).get();
+                if (released != null) {
+                    deleteChunks(imageRef, released);
+                    deleted.add(imageRef.getId());
+                }
+            }
+            return deleted;
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error deleting expired images: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to delete expired images: " + e.getMessage());
+        }
+    }
+
+    private void deleteChunks(DocumentReference imageRef, String prefix) throws ExecutionException, InterruptedException {
+        Query chunks = imageRef.collection(CHUNKS_COLLECTION);
+        if (!prefix.isEmpty()) {
+            chunks = chunks.whereGreaterThanOrEqualTo(FieldPath.documentId(), prefix)
+                .whereLessThan(FieldPath.documentId(), prefix + Character.MAX_VALUE);
+        }
+        FirestoreBulkDelete.deleteAll(chunks);
+    }
+
+    private void deleteChunksQuietly(DocumentReference imageRef, String prefix) {
+        try {
+            deleteChunks(imageRef, prefix);
+        } catch (Exception e) {
+            logger.warn("Failed to clean up chunks of a partly stored image {}: {}",
+                imageRef.getId(), e.getMessage());
+        }
+    }
+
+    private static boolean hasStatus(Throwable e, StatusCode.Code code) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException && ((ApiException) cause).getStatusCode().getCode() == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, Object> variantData(ImageVariant variant) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("contentType", variant.getContentType());
+        data.put("size", variant.getSize());
+        data.put("sha256", variant.getSha256());
+        data.put("chunkCount", variant.getChunkCount());
+        data.put("width", variant.getWidth());
+        data.put("height", variant.getHeight());
+        return data;
+    }
+
+    private static long decodedLength(String base64) {
+        int padding = base64.endsWith("==") ? 2 : base64.endsWith("=") ? 1 : 0;
+        return (long) base64.length() / 4 * 3 - padding;
+    }
+
+    /**
+     * Splits a stream into chunk documents, committing every CHUNKS_PER_BATCH
+     * chunks, and hashes the bytes as they pass. The last, uncommitted batch
+     * is left for the caller to complete.
+     */
+    private static final class ChunkWriter {
+        private final Firestore firestore;
+        private final CollectionReference chunks;
+        private final String prefix;
+        private final MessageDigest digest;
+        private WriteBatch batch;
+        private int batched;
+        private long size;
+        private int chunkCount;
+
+        ChunkWriter(Firestore firestore, CollectionReference chunks, String prefix) {
+            this.firestore = firestore;
+            this.chunks = chunks;
+            this.prefix = prefix;
+            this.batch = firestore.batch();
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform is required to provide SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void write(InputStream content) throws IOException, ExecutionException, InterruptedException {
+            byte[] chunk;
+            while ((chunk = content.readNBytes(CHUNK_SIZE)).length > 0) {
+                batch.set(chunks.document(prefix + chunkCount++), Map.of("data", Blob.fromBytes(chunk)));
+                size += chunk.length;
+                digest.update(chunk);
+                if (++batched == CHUNKS_PER_BATCH) {
+                    batch.commit().get();
+                    batch = firestore.batch();
+                    batched = 0;
+                }
+            }
+        }
+
+        String sha256() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    /**
+     * Reads an image's chunks in order, fetching the next chunk while the
+     * current one is being consumed.
+     */
+    private static final class ChunkInputStream extends InputStream {
+        private static final byte[] EMPTY = new byte[0];
+
+        private final CollectionReference chunks;
+        private final String prefix;
+        private final int chunkCount;
+        private int nextIndex;
+        private ApiFuture<DocumentSnapshot> next;
+        private byte[] current = EMPTY;
+        private int position;
+
+        ChunkInputStream(CollectionReference chunks, String prefix, int chunkCount) {
+            this.chunks = chunks;
+            this.prefix = prefix;
+            this.chunkCount = chunkCount;
+            this.next = chunkCount > 0 ? fetch(0) : null;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return current[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            Objects.checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return current.length - position;
+        }
+
+        @Override
+        public void close() {
+            if (next != null) {
+                next.cancel(false);
+                next = null;
+            }
+            current = EMPTY;
+            position = 0;
+        }
+
+        private boolean fill() throws IOException {
+            while (position >= current.length) {
+                if (next == null) {
+                    return false;
+                }
+                Blob data;
+                try {
+                    data = next.get().getBlob("data");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while reading image chunk", e);
+                } catch (ExecutionException e) {
+                    throw new IOException("Failed to read image chunk: " + e.getMessage(), e);
+                }
+                if (data == null) {
+                    throw new IOException("Image chunk " + nextIndex + " is missing");
+                }
+                current = data.toBytes();
+                position = 0;
+                nextIndex++;
+                next = nextIndex < chunkCount ? fetch(nextIndex) : null;
+            }
+            return true;
+        }
+
+        private ApiFuture<DocumentSnapshot> fetch(int index) {
+            return chunks.document(prefix + index).get();
+        }
+    }
+}
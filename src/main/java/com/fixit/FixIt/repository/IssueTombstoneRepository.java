@@ -0,0 +1,81 @@
+package com.fixit.FixIt.repository;
+
+import com.fixit.FixIt.util.AppConstants;
+import com.fixit.FixIt.util.FirestoreBulkDelete;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.firebase.cloud.FirestoreClient;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Records of deleted issues under issueTombstones/{deletedAt}_{issueId}, kept
+ * for a while so other instances can drop the issue from their local indexes.
+ *
+ * Document IDs start with the zero-padded deletion time, so both the "deleted
+ * since" read and the purge of old records are document ID range scans that
+ * need no composite index.
+ */
+@Repository
+public class IssueTombstoneRepository {
+    private static final String COLLECTION_NAME = AppConstants.ISSUE_TOMBSTONES_COLLECTION;
+    private static final int PAGE_SIZE = 500;
+
+    /**
+     * Adds the tombstone to the batch that deletes the issue.
+     */
+    public void stageDeleted(WriteBatch batch, String issueId, Date deletedAt) {
+        batch.set(FirestoreClient.getFirestore().collection(COLLECTION_NAME)
+                .document(idPrefix(deletedAt) + "_" + issueId),
+            Map.of("issueId", issueId, "deletedAt", deletedAt));
+    }
+
+    /**
+     * IDs of the issues deleted at or after the given time.
+     */
+    public List<String> findIssueIdsDeletedSince(Date since) throws ExecutionException, InterruptedException {
+        Query query = FirestoreClient.getFirestore().collection(COLLECTION_NAME)
+            .whereGreaterThanOrEqualTo(FieldPath.documentId(), idPrefix(since))
+            .orderBy(FieldPath.documentId())
+            .limit(PAGE_SIZE);
+
+        List<String> issueIds = new ArrayList<>();
+        DocumentSnapshot lastDocument = null;
+        while (true) {
+            Query page = lastDocument == null ? query : query.startAfter(lastDocument);
+            List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+            for (QueryDocumentSnapshot document : documents) {
+                String issueId = document.getString("issueId");
+                if (issueId != null) {
+                    issueIds.add(issueId);
+                }
+            }
+            if (documents.size() < PAGE_SIZE) {
+                return issueIds;
+            }
+            lastDocument = documents.get(documents.size() - 1);
+        }
+    }
+
+    /**
+     * Deletes the tombstones of issues deleted before the given time.
+     * @return Number of tombstones removed
+     */
+    public long purgeBefore(Date cutoff) throws ExecutionException, InterruptedException {
+        return FirestoreBulkDelete.deleteAll(FirestoreClient.getFirestore().collection(COLLECTION_NAME)
+            .whereLessThan(FieldPath.documentId(), idPrefix(cutoff)));
+    }
+
+    // Fixed width so that document IDs sort by deletion time
+    private static String idPrefix(Date date) {
+        return String.format("%013d", date.getTime());
+    }
+}
@@ -1,6 +1,8 @@
 package com.fixit.FixIt.repository;
 
+import com.fixit.FixIt.model.IssueStatus;
 import com.fixit.FixIt.model.StatusChangeLog;
+import com.google.cloud.firestore.Transaction;
 
 import java.util.Date;
 import java.util.List;
@@ -15,6 +17,14 @@ public interface StatusChangeLogRepository {
      */
     StatusChangeLog save(StatusChangeLog log);
     
+    /**
+     * Add a status change log write to a transaction
+     * @param transaction The transaction to write in
+     * @param log The log to save; an ID is assigned if missing
+     * @return The log with its ID set
+     */
+    StatusChangeLog save(Transaction transaction, StatusChangeLog log);
+    
     /**
      * Find a status change log by its ID
      * @param id The log ID
@@ -29,6 +39,46 @@ public interface StatusChangeLogRepository {
      */
     List<StatusChangeLog> findByIssueId(String issueId);
     
+    /**
+     * Find one page of an issue's status change logs, newest first
+     * @param issueId The issue ID
+     * @param limit Maximum number of logs to return
+     * @param afterLogId ID of the last log on the previous page, or null for the first page
+     * @return Up to limit logs ordered by changedAt descending
+     */
+    List<StatusChangeLog> findByIssueId(String issueId, int limit, String afterLogId);
+    
+    /**
+     * Find the earliest status change that moved an issue out of a status
+     * @param issueId The issue ID
+     * @param fromStatus The status the issue moved out of
+     * @return An Optional containing the earliest matching log, or empty if none
+     */
+    Optional<StatusChangeLog> findFirstByIssueIdAndFromStatus(String issueId, IssueStatus fromStatus);
+    
+    /**
+     * Find the latest status change that moved an issue into one of the given statuses
+     * @param issueId The issue ID
+     * @param toStatuses The statuses the issue moved into
+     * @return An Optional containing the latest matching log, or empty if none
+     */
+    Optional<StatusChangeLog> findLatestByIssueIdAndToStatusIn(String issueId, List<IssueStatus> toStatuses);
+    
+    /**
+     * Count the status change logs for an issue
+     * @param issueId The issue ID
+     * @return Number of logs for the issue
+     */
+    long countByIssueId(String issueId);
+    
+    /**
+     * Find an admin's most recent status change logs
+     * @param adminUid The admin UID
+     * @param limit Maximum number of logs to return
+     * @return Up to limit logs ordered by changedAt descending
+     */
+    List<StatusChangeLog> findRecentByAdmin(String adminUid, int limit);
+    
     /**
      * Find all status change logs by admin UID
      * @param adminUid The admin UID
@@ -1,6 +1,8 @@
 package com.fixit.FixIt.repository;
 
+import com.fixit.FixIt.model.IssueStatus;
 import com.fixit.FixIt.model.StatusChangeLog;
+import com.fixit.FixIt.util.FirestoreBulkDelete;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import com.google.firebase.cloud.FirestoreClient;
@@ -46,6 +48,22 @@ public class StatusChangeLogRepositoryImpl implements StatusChangeLogRepository
         }
     }
 
+    @Override
+    public StatusChangeLog save(Transaction transaction, StatusChangeLog log) {
+        Firestore firestore = FirestoreClient.getFirestore();
+        
+        DocumentReference docRef;
+        if (log.getId() != null && !log.getId().isEmpty()) {
+            docRef = firestore.collection(COLLECTION_NAME).document(log.getId());
+        } else {
+            docRef = firestore.collection(COLLECTION_NAME).document();
+            log.setId(docRef.getId());
+        }
+        
+        transaction.set(docRef, log);
+        return log;
+    }
+
     @Override
     public Optional<StatusChangeLog> findById(String id) {
         try {
@@ -92,6 +110,98 @@ public class StatusChangeLogRepositoryImpl implements StatusChangeLogRepository
         }
     }
 
+    @Override
+    public List<StatusChangeLog> findByIssueId(String issueId, int limit, String afterLogId) {
+        try {
+            Firestore firestore = FirestoreClient.getFirestore();
+            CollectionReference logsRef = firestore.collection(COLLECTION_NAME);
+            Query query = logsRef
+                .whereEqualTo("issueId", issueId)
+                .orderBy("changedAt", Query.Direction.DESCENDING)
+                .limit(limit);
+            
+            if (afterLogId != null && !afterLogId.isEmpty()) {
+                DocumentSnapshot after = logsRef.document(afterLogId).get().get();
+                if (!after.exists() || !issueId.equals(after.getString("issueId"))) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid history cursor");
+                }
+                query = query.startAfter(after);
+            }
+            
+            return toLogs(query.get().get().getDocuments());
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error finding status change logs by issueId: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to find status change logs: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<StatusChangeLog> findFirstByIssueIdAndFromStatus(String issueId, IssueStatus fromStatus) {
+        try {
+            Firestore firestore = FirestoreClient.getFirestore();
+            Query query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("issueId", issueId)
+                .whereEqualTo("fromStatus", fromStatus)
+                .orderBy("changedAt", Query.Direction.ASCENDING)
+                .limit(1);
+            
+            return toLogs(query.get().get().getDocuments()).stream().findFirst();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error finding first status change log: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to find status change logs: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<StatusChangeLog> findLatestByIssueIdAndToStatusIn(String issueId, List<IssueStatus> toStatuses) {
+        try {
+            Firestore firestore = FirestoreClient.getFirestore();
+            Query query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("issueId", issueId)
+                .whereIn("toStatus", new ArrayList<>(toStatuses))
+                .orderBy("changedAt", Query.Direction.DESCENDING)
+                .limit(1);
+            
+            return toLogs(query.get().get().getDocuments()).stream().findFirst();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error finding latest status change log: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to find status change logs: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long countByIssueId(String issueId) {
+        try {
+            Firestore firestore = FirestoreClient.getFirestore();
+            Query query = firestore.collection(COLLECTION_NAME).whereEqualTo("issueId", issueId);
+            return query.count().get().get().getCount();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error counting status change logs by issueId: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to count status change logs: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<StatusChangeLog> findRecentByAdmin(String adminUid, int limit) {
+        try {
+            Firestore firestore = FirestoreClient.getFirestore();
+            Query query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("changedByAdminUid", adminUid)
+                .orderBy("changedAt", Query.Direction.DESCENDING)
+                .limit(limit);
+            
+            return toLogs(query.get().get().getDocuments());
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error finding recent status change logs by adminUid: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to find recent status change logs: " + e.getMessage());
+        }
+    }
+
     @Override
     public List<StatusChangeLog> findByChangedByAdminUid(String adminUid) {
         try {
@@ -151,23 +261,23 @@ public class StatusChangeLogRepositoryImpl implements StatusChangeLogRepository
     public int deleteByIssueId(String issueId) {
         try {
             Firestore firestore = FirestoreClient.getFirestore();
-            CollectionReference logsRef = firestore.collection(COLLECTION_NAME);
-            Query query = logsRef.whereEqualTo("issueId", issueId);
-            ApiFuture<QuerySnapshot> future = query.get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-            
-            int count = 0;
-            for (DocumentSnapshot document : documents) {
-                ApiFuture<WriteResult> writeResult = document.getReference().delete();
-                writeResult.get(); // Wait for operation to complete
-                count++;
-            }
-            
-            return count;
+            Query query = firestore.collection(COLLECTION_NAME).whereEqualTo("issueId", issueId);
+            return (int) FirestoreBulkDelete.deleteAll(query);
         } catch (InterruptedException | ExecutionException e) {
             logger.error("Error deleting status change logs by issueId: {}", e.getMessage(), e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                 "Failed to delete status change logs: " + e.getMessage());
         }
     }
+
+    private List<StatusChangeLog> toLogs(List<QueryDocumentSnapshot> documents) {
+        List<StatusChangeLog> logs = new ArrayList<>();
+        for (DocumentSnapshot document : documents) {
+            StatusChangeLog log = document.toObject(StatusChangeLog.class);
+            if (log != null) {
+                logs.add(log);
+            }
+        }
+        return logs;
+    }
 } 
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.fixit.FixIt.repository;
 
 import com.fixit.FixIt.model.UserUpvote;
+import com.fixit.FixIt.util.FirestoreBulkDelete;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import com.google.firebase.cloud.FirestoreClient;
@@ -35,33 +36,35 @@ public class UserUpvoteRepository {
         }
     }
 
-    public boolean hasUserUpvotedIssue(String userId, String issueId) {
-        try {
-            QuerySnapshot querySnapshot = getFirestore().collection(COLLECTION_NAME)
-                .whereEqualTo("userId", userId)
-                .whereEqualTo("issueId", issueId)
-                .limit(1)
-                .get()
-                .get();
+    public DocumentReference getReference(String userId, String issueId) {
+        return getFirestore().collection(COLLECTION_NAME).document(UserUpvote.documentId(userId, issueId));
+    }
 
-            return !querySnapshot.isEmpty();
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error checking if user has upvoted issue", e);
-        }
+    /**
+     * Query for upvotes stored under auto-generated IDs before the deterministic
+     * userId_issueId scheme was introduced.
+     */
+    public Query legacyUpvoteQuery(String userId, String issueId) {
+        return getFirestore().collection(COLLECTION_NAME)
+            .whereEqualTo("userId", userId)
+            .whereEqualTo("issueId", issueId)
+            .limit(1);
+    }
+
+    public boolean hasUserUpvotedIssue(String userId, String issueId) {
+        return findByUserIdAndIssueId(userId, issueId).isPresent();
     }
 
     public Optional<UserUpvote> findByUserIdAndIssueId(String userId, String issueId) {
         try {
-            QuerySnapshot querySnapshot = getFirestore().collection(COLLECTION_NAME)
-                .whereEqualTo("userId", userId)
-                .whereEqualTo("issueId", issueId)
-                .limit(1)
-                .get()
-                .get();
+            DocumentSnapshot document = getReference(userId, issueId).get().get();
+            if (document.exists()) {
+                return Optional.of(UserUpvote.fromMap(document.getData()));
+            }
 
+            QuerySnapshot querySnapshot = legacyUpvoteQuery(userId, issueId).get().get();
             if (!querySnapshot.isEmpty()) {
-                DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                return Optional.of(UserUpvote.fromMap(document.getData()));
+                return Optional.of(UserUpvote.fromMap(querySnapshot.getDocuments().get(0).getData()));
             }
             return Optional.empty();
         } catch (InterruptedException | ExecutionException e) {
@@ -69,24 +72,14 @@ public class UserUpvoteRepository {
         }
     }
     
-    public void deleteByIssueId(String issueId) {
+    /**
+     * Deletes every upvote for an issue, in as many batches as needed.
+     * @return Number of upvotes deleted
+     */
+    public long deleteByIssueId(String issueId) {
         try {
-            // Find all upvotes for this issue
-            QuerySnapshot querySnapshot = getFirestore().collection(COLLECTION_NAME)
-                .whereEqualTo("issueId", issueId)
-                .get()
-                .get();
-            
-            // Delete each upvote
-            WriteBatch batch = getFirestore().batch();
-            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                batch.delete(document.getReference());
-            }
-            
-            // Commit the batch
-            if (!querySnapshot.isEmpty()) {
-                batch.commit().get();
-            }
+            Query query = getFirestore().collection(COLLECTION_NAME).whereEqualTo("issueId", issueId);
+            return FirestoreBulkDelete.deleteAll(query);
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error deleting upvotes for issue", e);
         }
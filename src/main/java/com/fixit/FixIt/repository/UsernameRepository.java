@@ -0,0 +1,392 @@
+package com.fixit.FixIt.repository;
+
+import com.google.cloud.firestore.*;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * Username reservations, one document per username under usernames/{username}
+ * holding the owner's uid and email.
+ *
+ * Reservations are created in the same transaction as the user document, so a
+ * username is allocated with one atomic write and two signups can never end up
+ * with the same name. Username to email lookups for sign-in are point reads,
+ * memoized in a local LRU cache for users.username-cache.ttl-seconds, which
+ * bounds how long a name changed or released on another instance still
+ * resolves to its previous owner here. Users created before reservations existed are
+ * found through their user document until the startup backfill
+ * (users.usernames.backfill-on-startup) has reserved their names.
+ */
+@Repository
+public class UsernameRepository {
+    private static final Logger logger = LoggerFactory.getLogger(UsernameRepository.class);
+    private static final String COLLECTION_NAME = "usernames";
+    private static final String USERS_COLLECTION = "users";
+    // Candidate usernames checked per read while allocating
+    private static final int CANDIDATES_PER_READ = 10;
+    private static final int BACKFILL_BATCH_SIZE = 200;
+    // Firestore's limit on document ID size
+    private static final int MAX_USERNAME_BYTES = 1500;
+
+    private final Map<String, CachedEmail> emailCache;
+    private final long cacheTtlMillis;
+    private final boolean backfillOnStartup;
+
+    public UsernameRepository(
+            @Value("${users.username-cache.max-entries:10000}") int maxCacheEntries,
+            @Value("${users.username-cache.ttl-seconds:300}") long cacheTtlSeconds,
+            @Value("${users.usernames.backfill-on-startup:false}") boolean backfillOnStartup) {
+        this.emailCache = new LinkedHashMap<String, CachedEmail>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedEmail> eldest) {
+                return size() > maxCacheEntries;
+            }
+        };
+        this.cacheTtlMillis = cacheTtlSeconds * 1000;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    private Firestore getFirestore() {
+        return FirestoreClient.getFirestore();
+    }
+
+    /**
+     * Writes users/{uid} and reserves the first free username out of
+     * baseUsername, baseUsername1, baseUsername2, ... in one transaction.
+     * @return The allocated username
+     */
+    public String createUserWithUsername(String uid, String email, String baseUsername, Map<String, Object> userData) {
+        DocumentReference userRef = getFirestore().collection(USERS_COLLECTION).document(uid);
+        return allocate(uid, email, baseUsername, null, (transaction, username) -> {
+            Map<String, Object> data = new HashMap<>(userData);
+            data.put("username", username);
+            transaction.set(userRef, data);
+        });
+    }
+
+    /**
+     * Reserves the first free username out of baseUsername, baseUsername1, ...
+     * for an existing user that has none, and stores it on users/{uid}.
+     * @return The allocated username, or the one the user already has
+     */
+    public String assignUsername(String uid, String email, String baseUsername) {
+        DocumentReference userRef = getFirestore().collection(USERS_COLLECTION).document(uid);
+        return allocate(uid, email, baseUsername, userRef,
+            (transaction, username) -> transaction.update(userRef, "username", username));
+    }
+
+    /**
+     * Runs the candidate search in transactions of CANDIDATES_PER_READ names
+     * each. If existingUserRef is given and that user already has a username,
+     * it is returned and nothing is written.
+     */
+    private String allocate(String uid, String email, String baseUsername, DocumentReference existingUserRef,
+                            BiConsumer<Transaction, String> writeUser) {
+        String base = baseUsername(baseUsername);
+        try {
+            for (int offset = 0; ; offset += CANDIDATES_PER_READ) {
+                int start = offset;
+                String username = getFirestore().runTransaction(transaction -> {
+                    if (existingUserRef != null) {
+                        String current = transaction.get(existingUserRef).get().getString("username");
+                        if (current != null && !current.isEmpty()) {
+                            return current;
+                        }
+                    }
+                    List<String> candidates = new ArrayList<>();
+                    List<DocumentReference> refs = new ArrayList<>();
+                    for (int i = start; i < start + CANDIDATES_PER_READ; i++) {
+                        String candidate = candidate(base, i);
+                        candidates.add(candidate);
+                        refs.add(reference(candidate));
+                    }
+
+                    List<DocumentSnapshot> reservations = transaction.getAll(refs.toArray(new DocumentReference[0])).get();
+                    for (int i = 0; i < candidates.size(); i++) {
+                        if (reservations.get(i).exists()
+                                || !transaction.get(legacyQuery(candidates.get(i))).get().isEmpty()) {
+                            continue;
+                        }
+                        transaction.create(refs.get(i), reservation(uid, email, candidates.get(i)));
+                        writeUser.accept(transaction, candidates.get(i));
+                        return candidates.get(i);
+                    }
+                    return null;
+                }).get();
+
+                if (username != null) {
+                    return username;
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error reserving username", e);
+        }
+    }
+
+    /**
+     * Resolves a username to the owner's email: a cache lookup, else one point read.
+     * Usernames that cannot be stored as a reservation are never found.
+     */
+    public Optional<String> findEmailByUsername(String username) {
+        if (!isValidUsername(username)) {
+            return Optional.empty();
+        }
+        synchronized (emailCache) {
+            CachedEmail cached = emailCache.get(username);
+            if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+                return Optional.of(cached.email);
+            }
+        }
+
+        try {
+            String email;
+            DocumentSnapshot reservation = reference(username).get().get();
+            if (reservation.exists()) {
+                email = reservation.getString("email");
+            } else {
+                // Users created before reservations existed
+                QuerySnapshot legacy = legacyQuery(username).get().get();
+                email = legacy.isEmpty() ? null : legacy.getDocuments().get(0).getString("email");
+            }
+
+            if (email == null) {
+                return Optional.empty();
+            }
+            synchronized (emailCache) {
+                emailCache.put(username, new CachedEmail(email, System.currentTimeMillis() + cacheTtlMillis));
+            }
+            return Optional.of(email);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding username", e);
+        }
+    }
+
+    /**
+     * Moves a user's reservation to a new username and updates users/{uid}.
+     * @throws ResponseStatusException BAD_REQUEST if the username is not allowed
+     *         or another user holds it
+     */
+    public void changeUsername(String uid, String newUsername) {
+        if (!isValidUsername(newUsername)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Usernames cannot contain '/', be '.' or '..', or start and end with '__'.");
+        }
+        DocumentReference userRef = getFirestore().collection(USERS_COLLECTION).document(uid);
+        DocumentReference newRef = reference(newUsername);
+        try {
+            String oldUsername = getFirestore().runTransaction(transaction -> {
+                DocumentSnapshot newReservation = transaction.get(newRef).get();
+                DocumentSnapshot userDoc = transaction.get(userRef).get();
+                if (newReservation.exists() && !uid.equals(newReservation.getString("uid"))) {
+                    throw usernameTaken();
+                }
+                if (!newReservation.exists()) {
+                    for (QueryDocumentSnapshot legacy : transaction.get(legacyQuery(newUsername)).get().getDocuments()) {
+                        if (!legacy.getId().equals(uid)) {
+                            throw usernameTaken();
+                        }
+                    }
+                }
+
+                String previous = userDoc.exists() ? userDoc.getString("username") : null;
+                // Legacy names that cannot be document IDs were never reserved
+                DocumentSnapshot oldReservation = isValidUsername(previous) && !previous.equals(newUsername)
+                    ? transaction.get(reference(previous)).get() : null;
+
+                transaction.set(newRef, reservation(uid, userDoc.getString("email"), newUsername));
+                if (oldReservation != null && oldReservation.exists() && uid.equals(oldReservation.getString("uid"))) {
+                    transaction.delete(oldReservation.getReference());
+                }
+                transaction.update(userRef, "username", newUsername);
+                return previous;
+            }).get();
+
+            evict(oldUsername, newUsername);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResponseStatusException) {
+                throw (ResponseStatusException) e.getCause();
+            }
+            throw new RuntimeException("Error changing username", e);
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Error changing username", e);
+        }
+    }
+
+    /**
+     * Frees the username held by a user, if any. Called when the account is deleted.
+     */
+    public void release(String uid) {
+        DocumentReference userRef = getFirestore().collection(USERS_COLLECTION).document(uid);
+        try {
+            String username = getFirestore().runTransaction(transaction -> {
+                DocumentSnapshot userDoc = transaction.get(userRef).get();
+                String current = userDoc.exists() ? userDoc.getString("username") : null;
+                if (!isValidUsername(current)) {
+                    return current;
+                }
+                DocumentSnapshot reservation = transaction.get(reference(current)).get();
+                if (reservation.exists() && uid.equals(reservation.getString("uid"))) {
+                    transaction.delete(reservation.getReference());
+                }
+                return current;
+            }).get();
+            evict(username);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error releasing username", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            CompletableFuture.runAsync(this::backfillReservations);
+        }
+    }
+
+    /**
+     * Reserves the usernames of users created before reservations existed.
+     * Where two legacy users share a username, the first one keeps it.
+     */
+    public void backfillReservations() {
+        try {
+            Query query = getFirestore().collection(USERS_COLLECTION)
+                .select("username", "email")
+                .orderBy(FieldPath.documentId())
+                .limit(BACKFILL_BATCH_SIZE);
+
+            int reserved = 0;
+            DocumentSnapshot lastDocument = null;
+            while (true) {
+                Query batchQuery = lastDocument == null ? query : query.startAfter(lastDocument);
+                List<QueryDocumentSnapshot> documents = batchQuery.get().get().getDocuments();
+
+                List<DocumentReference> refs = new ArrayList<>();
+                List<QueryDocumentSnapshot> users = new ArrayList<>();
+                for (QueryDocumentSnapshot document : documents) {
+                    String username = document.getString("username");
+                    if (isValidUsername(username)) {
+                        refs.add(reference(username));
+                        users.add(document);
+                    }
+                }
+
+                if (!refs.isEmpty()) {
+                    List<DocumentSnapshot> reservations = getFirestore().getAll(refs.toArray(new DocumentReference[0])).get();
+                    for (int i = 0; i < users.size(); i++) {
+                        if (reservations.get(i).exists()) {
+                            continue;
+                        }
+                        QueryDocumentSnapshot user = users.get(i);
+                        try {
+                            // create() fails if a user earlier in this run took the same name
+                            refs.get(i).create(reservation(user.getId(), user.getString("email"),
+                                user.getString("username"))).get();
+                            reserved++;
+                        } catch (ExecutionException e) {
+                            logger.warn("Username {} of user {} is already reserved", user.getString("username"), user.getId());
+                        }
+                    }
+                }
+
+                if (documents.size() < BACKFILL_BATCH_SIZE) {
+                    break;
+                }
+                lastDocument = documents.get(documents.size() - 1);
+            }
+            logger.info("Username backfill reserved {} usernames", reserved);
+        } catch (Exception e) {
+            logger.error("Username backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void evict(String... usernames) {
+        synchronized (emailCache) {
+            for (String username : usernames) {
+                if (username != null) {
+                    emailCache.remove(username);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the username can be used as a reservation document ID.
+     */
+    public static boolean isValidUsername(String username) {
+        return username != null
+            && !username.isEmpty()
+            && username.getBytes(StandardCharsets.UTF_8).length <= MAX_USERNAME_BYTES
+            && !username.contains("/")
+            && !username.equals(".")
+            && !username.equals("..")
+            && !(username.length() >= 4 && username.startsWith("__") && username.endsWith("__"));
+    }
+
+    /**
+     * Lowercase letters and digits of the requested name, or "user" if none are left.
+     */
+    static String baseUsername(String requested) {
+        String cleaned = requested == null ? "" : requested.toLowerCase().replaceAll("[^a-z0-9]", "");
+        return cleaned.isEmpty() ? "user" : cleaned;
+    }
+
+    /**
+     * The index-th username tried for a base: base, base1, base2, ...
+     */
+    static String candidate(String base, int index) {
+        return index == 0 ? base : base + index;
+    }
+
+    private DocumentReference reference(String username) {
+        return getFirestore().collection(COLLECTION_NAME).document(username);
+    }
+
+    private Query legacyQuery(String username) {
+        return getFirestore().collection(USERS_COLLECTION)
+            .whereEqualTo("username", username)
+            .limit(1);
+    }
+
+    private static Map<String, Object> reservation(String uid, String email, String username) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("uid", uid);
+        data.put("email", email);
+        data.put("username", username);
+        data.put("createdAt", new Date());
+        return data;
+    }
+
+    private static ResponseStatusException usernameTaken() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            "This username is already taken. Please choose a different one.");
+    }
+
+    private static class CachedEmail {
+        private final String email;
+        private final long expiresAt;
+
+        CachedEmail(String email, long expiresAt) {
+            this.email = email;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,23 +1,31 @@
 package com.fixit.FixIt.security;
 
-import com.google.firebase.auth.FirebaseAuth;
+import com.fixit.FixIt.util.AppConstants;
 import com.google.firebase.auth.FirebaseToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
 
+    private final VerifiedTokenCache tokenCache;
+
+    public FirebaseAuthenticationFilter(VerifiedTokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -27,14 +35,14 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String idToken = authHeader.substring(7);
             try {
-                // Verify the Firebase token
-                FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
+                // Verify the Firebase token (cached until it expires)
+                FirebaseToken decodedToken = tokenCache.verify(idToken);
                 
                 // Create authentication token with user details
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     decodedToken.getUid(), // Use UID as principal
                     null,
-                    Collections.singleton(new SimpleGrantedAuthority("ROLE_USER"))
+                    authorities(decodedToken)
                 );
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -45,4 +53,17 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    /**
+     * Maps the "role" custom claim (set when an admin is created) to Spring
+     * authorities. Admins also get ROLE_USER; tokens without the claim are users.
+     */
+    private static List<GrantedAuthority> authorities(FirebaseToken token) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + AppConstants.ROLE_USER));
+        if (AppConstants.ROLE_ADMIN.equals(token.getClaims().get("role"))) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + AppConstants.ROLE_ADMIN));
+        }
+        return authorities;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.fixit.FixIt.security;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of verified Firebase ID tokens, keyed by the SHA-256 of the token so
+ * raw tokens are never held as map keys.
+ *
+ * A verified token is reused until its exp claim, so repeat requests from the
+ * same client cost a hash and a map lookup instead of a signature check. When
+ * security.token-cache.revocation-check-seconds is set, cached tokens are
+ * re-verified against Firebase with the revocation check at that cadence, which
+ * bounds how long a revoked session keeps working.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private final Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long revocationCheckMillis;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revocationChecks = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public VerifiedTokenCache(
+            @Value("${security.token-cache.max-entries:10000}") int maxEntries,
+            @Value("${security.token-cache.revocation-check-seconds:0}") long revocationCheckSeconds) {
+        this.maxEntries = maxEntries;
+        this.revocationCheckMillis = revocationCheckSeconds * 1000;
+    }
+
+    /**
+     * Returns the decoded token, verifying it with Firebase unless a cached
+     * verification is still valid.
+     *
+     * @throws FirebaseAuthException If the token is invalid, expired or revoked
+     */
+    public FirebaseToken verify(String idToken) throws FirebaseAuthException {
+        String key = hash(idToken);
+        long now = System.currentTimeMillis();
+        CachedToken cached = tokens.get(key);
+
+        if (cached != null && cached.expiresAt > now) {
+            if (revocationCheckMillis > 0 && now - cached.checkedAt >= revocationCheckMillis) {
+                revocationChecks.incrementAndGet();
+                try {
+                    FirebaseAuth.getInstance().verifyIdToken(idToken, true);
+                } catch (FirebaseAuthException e) {
+                    tokens.remove(key);
+                    rejected.incrementAndGet();
+                    throw e;
+                }
+                tokens.put(key, new CachedToken(cached.token, cached.expiresAt, now));
+            }
+            hits.incrementAndGet();
+            return cached.token;
+        }
+        if (cached != null) {
+            tokens.remove(key);
+        }
+
+        misses.incrementAndGet();
+        FirebaseToken token;
+        try {
+            token = FirebaseAuth.getInstance().verifyIdToken(idToken, revocationCheckMillis > 0);
+        } catch (FirebaseAuthException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+
+        long expiresAt = expiresAt(token);
+        if (expiresAt > now) {
+            if (tokens.size() >= maxEntries) {
+                tokens.values().removeIf(entry -> entry.expiresAt <= now);
+                if (tokens.size() >= maxEntries) {
+                    tokens.clear();
+                }
+            }
+            tokens.put(key, new CachedToken(token, expiresAt, now));
+        }
+        return token;
+    }
+
+    /**
+     * Hit, miss, revocation-check and rejection counts since startup.
+     */
+    public Map<String, Object> getMetrics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hits", hitCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRate", requests > 0 ? (double) hitCount / requests * 100.0 : 0.0);
+        metrics.put("revocationChecks", revocationChecks.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("size", tokens.size());
+        metrics.put("maxEntries", maxEntries);
+        return metrics;
+    }
+
+    // exp is in seconds since the epoch
+    private static long expiresAt(FirebaseToken token) {
+        Object exp = token.getClaims().get("exp");
+        if (exp instanceof Number) {
+            return ((Number) exp).longValue() * 1000;
+        }
+        logger.debug("Verified token without an exp claim, not caching");
+        return 0;
+    }
+
+    private static String hash(String idToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(idToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class CachedToken {
+        private final FirebaseToken token;
+        private final long expiresAt;
+        // When the token was last verified with Firebase
+        private final long checkedAt;
+
+        CachedToken(FirebaseToken token, long expiresAt, long checkedAt) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+            this.checkedAt = checkedAt;
+        }
+    }
+}
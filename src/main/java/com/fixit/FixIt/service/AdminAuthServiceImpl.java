@@ -6,6 +6,8 @@ import com.fixit.FixIt.repository.AdminRepository;
 import com.fixit.FixIt.exception.BadRequestException;
 import com.fixit.FixIt.exception.ResourceNotFoundException;
 import com.fixit.FixIt.exception.UnauthorizedException;
+import com.fixit.FixIt.security.VerifiedTokenCache;
+import com.fixit.FixIt.util.AppConstants;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.UserRecord;
@@ -25,9 +27,11 @@ public class AdminAuthServiceImpl implements AdminAuthService {
     
     private static final Logger logger = LoggerFactory.getLogger(AdminAuthServiceImpl.class);
     private final AdminRepository adminRepository;
+    private final VerifiedTokenCache tokenCache;
     
-    public AdminAuthServiceImpl(AdminRepository adminRepository) {
+    public AdminAuthServiceImpl(AdminRepository adminRepository, VerifiedTokenCache tokenCache) {
         this.adminRepository = adminRepository;
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -66,7 +70,7 @@ public class AdminAuthServiceImpl implements AdminAuthService {
             
             // Set custom claims to identify as admin
             Map<String, Object> claims = new HashMap<>();
-            claims.put("role", "ADMIN");
+            claims.put("role", AppConstants.ROLE_ADMIN);
             FirebaseAuth.getInstance().setCustomUserClaims(uid, claims);
             
             // Create custom token
@@ -92,7 +96,7 @@ public class AdminAuthServiceImpl implements AdminAuthService {
             response.setName(name);
             response.setPhoneNumber(phoneNumber);
             response.setLocation(location);
-            response.setRole("ADMIN");
+            response.setRole(AppConstants.ROLE_ADMIN);
             response.setPermissions(admin.getPermissions());
             response.setStats(admin.getStats());
             
@@ -121,7 +125,15 @@ public class AdminAuthServiceImpl implements AdminAuthService {
             
             // Create custom token
             Map<String, Object> claims = new HashMap<>();
-            claims.put("role", "ADMIN");
+            claims.put("role", AppConstants.ROLE_ADMIN);
+            
+            // Admins created without the claim get it now; ID tokens issued from here on carry it
+            Map<String, Object> existingClaims = userRecord.getCustomClaims();
+            if (existingClaims == null || !AppConstants.ROLE_ADMIN.equals(existingClaims.get("role"))) {
+                Map<String, Object> updatedClaims = existingClaims != null ? new HashMap<>(existingClaims) : new HashMap<>();
+                updatedClaims.put("role", AppConstants.ROLE_ADMIN);
+                FirebaseAuth.getInstance().setCustomUserClaims(uid, updatedClaims);
+            }
             String token = FirebaseAuth.getInstance().createCustomToken(uid, claims);
             
             // Update last login
@@ -135,7 +147,7 @@ public class AdminAuthServiceImpl implements AdminAuthService {
             response.setName(admin.getName());
             response.setPhoneNumber(admin.getPhoneNumber());
             response.setLocation(admin.getLocation());
-            response.setRole("ADMIN");
+            response.setRole(AppConstants.ROLE_ADMIN);
             response.setPermissions(admin.getPermissions());
             response.setStats(admin.getStats());
             
@@ -156,19 +168,11 @@ public class AdminAuthServiceImpl implements AdminAuthService {
     public boolean verifyAdminToken(String token) throws FirebaseAuthException {
         try {
             // Verify ID token
-            var firebaseToken = FirebaseAuth.getInstance().verifyIdToken(token);
-            String uid = firebaseToken.getUid();
+            var firebaseToken = tokenCache.verify(token);
             
-            // Check if user has admin role
+            // Admin role is carried as a custom claim, set at signup or first sign-in
             Map<String, Object> claims = firebaseToken.getClaims();
-            boolean isAdmin = claims.containsKey("role") && "ADMIN".equals(claims.get("role"));
-            
-            if (!isAdmin) {
-                // Check in database to be sure
-                return adminRepository.existsByUid(uid);
-            }
-            
-            return true;
+            return AppConstants.ROLE_ADMIN.equals(claims.get("role"));
         } catch (FirebaseAuthException e) {
             logger.error("Firebase auth error verifying admin token: {}", e.getMessage(), e);
             throw e;
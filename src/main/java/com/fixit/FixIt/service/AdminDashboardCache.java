@@ -0,0 +1,106 @@
+package com.fixit.FixIt.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory per-admin dashboard snapshots.
+ *
+ * A snapshot is served for at most the configured TTL, which bounds how stale
+ * system-wide figures such as the workload percentage can get. Status changes
+ * made by an admin drop that admin's snapshot straight away, so their own
+ * actions show up on the next poll. Like the other caches it is local to this
+ * instance.
+ */
+@Component
+public class AdminDashboardCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminDashboardCache.class);
+    private static final int MAX_ENTRIES = 1000;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AdminDashboardCache(@Value("${admin.dashboard-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * Returns the admin's cached dashboard, or builds and caches a new one.
+     */
+    public Map<String, Object> get(String uid, Supplier<Map<String, Object>> loader) {
+        long now = System.currentTimeMillis();
+        Snapshot cached = snapshots.get(uid);
+        if (cached != null && cached.expiresAt > now) {
+            hits.incrementAndGet();
+            return cached.value;
+        }
+        misses.incrementAndGet();
+
+        long generation = generations.getOrDefault(uid, 0L);
+        Map<String, Object> value = Collections.unmodifiableMap(loader.get());
+        // Skip caching if a status change landed while the snapshot was being built
+        if (generations.getOrDefault(uid, 0L) == generation) {
+            if (snapshots.size() >= MAX_ENTRIES) {
+                snapshots.values().removeIf(entry -> entry.expiresAt <= now);
+                if (snapshots.size() >= MAX_ENTRIES) {
+                    snapshots.clear();
+                }
+            }
+            snapshots.put(uid, new Snapshot(value, now + ttlMillis));
+        }
+        return value;
+    }
+
+    /**
+     * Drops an admin's snapshot. Called after the admin changes an issue's status.
+     */
+    public void invalidate(String uid) {
+        generations.merge(uid, 1L, Long::sum);
+        if (snapshots.remove(uid) != null) {
+            invalidations.incrementAndGet();
+            logger.debug("Invalidated dashboard snapshot for admin: {}", uid);
+        }
+    }
+
+    /**
+     * Hit, miss and invalidation counts since startup.
+     */
+    public Map<String, Object> getMetrics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hits", hitCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRate", requests > 0 ? (double) hitCount / requests * 100.0 : 0.0);
+        metrics.put("invalidations", invalidations.get());
+        metrics.put("size", snapshots.size());
+        metrics.put("ttlSeconds", ttlMillis / 1000);
+        return metrics;
+    }
+
+    private static class Snapshot {
+        private final Map<String, Object> value;
+        private final long expiresAt;
+
+        Snapshot(Map<String, Object> value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -22,6 +22,12 @@ public interface AdminService {
      */
     Map<String, Object> getAdminDashboardStats(String uid);
     
+    /**
+     * Get hit rate and size of the dashboard snapshot cache
+     * @return Map containing cache metrics
+     */
+    Map<String, Object> getDashboardCacheMetrics();
+    
     /**
      * Update issue status by admin
      * @param issueId Issue ID
@@ -33,11 +39,13 @@ public interface AdminService {
     Issue updateIssueStatus(String issueId, IssueStatus newStatus, String adminUid, String notes);
     
     /**
-     * Get status change history for an issue
+     * Get status change history for an issue, newest first
      * @param issueId Issue ID
+     * @param limit Maximum number of status changes to return
+     * @param after Cursor from the previous page (nextCursor), or null for the first page
      * @return Map containing history data
      */
-    Map<String, Object> getIssueStatusHistory(String issueId);
+    Map<String, Object> getIssueStatusHistory(String issueId, int limit, String after);
     
     /**
      * Get analytics data
@@ -2,10 +2,12 @@ package com.fixit.FixIt.service;
 
 import com.fixit.FixIt.dto.AdminProfileResponse;
 import com.fixit.FixIt.model.Admin;
+import com.fixit.FixIt.model.DailyAnalytics;
 import com.fixit.FixIt.model.Issue;
 import com.fixit.FixIt.model.IssueStatus;
 import com.fixit.FixIt.model.StatusChangeLog;
 import com.fixit.FixIt.repository.AdminRepository;
+import com.fixit.FixIt.repository.AnalyticsRollupRepository;
 import com.fixit.FixIt.repository.StatusChangeLogRepository;
 import com.fixit.FixIt.exception.ResourceNotFoundException;
 import com.google.cloud.firestore.*;
@@ -17,11 +19,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
 
 @Service
 public class AdminServiceImpl implements AdminService {
@@ -30,14 +32,29 @@ public class AdminServiceImpl implements AdminService {
     private final AdminRepository adminRepository;
     private final StatusChangeLogRepository statusChangeLogRepository;
     private final IssueService issueService;
+    private final IssueCountService issueCountService;
+    private final AnalyticsRollupRepository analyticsRollupRepository;
+    private final AdminDashboardCache dashboardCache;
+    
+    // Longest range served by /analytics, one rollup document read per day and shard
+    private static final int MAX_ANALYTICS_DAYS = 366;
+    private static final int DEFAULT_ANALYTICS_DAYS = 30;
+    private static final int RECENT_CHANGES_LIMIT = 10;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
 
     public AdminServiceImpl(
         AdminRepository adminRepository, 
         StatusChangeLogRepository statusChangeLogRepository,
-        IssueService issueService) {
+        IssueService issueService,
+        IssueCountService issueCountService,
+        AnalyticsRollupRepository analyticsRollupRepository,
+        AdminDashboardCache dashboardCache) {
         this.adminRepository = adminRepository;
         this.statusChangeLogRepository = statusChangeLogRepository;
         this.issueService = issueService;
+        this.issueCountService = issueCountService;
+        this.analyticsRollupRepository = analyticsRollupRepository;
+        this.dashboardCache = dashboardCache;
     }
 
     @Override
@@ -66,10 +83,21 @@ public class AdminServiceImpl implements AdminService {
         return response;
     }
 
+    /**
+     * Served from the admin's cached snapshot while it is fresh (see AdminDashboardCache).
+     */
     @Override
     public Map<String, Object> getAdminDashboardStats(String uid) {
         logger.info("Getting dashboard stats for admin: {}", uid);
-        
+        return dashboardCache.get(uid, () -> buildDashboardStats(uid));
+    }
+
+    @Override
+    public Map<String, Object> getDashboardCacheMetrics() {
+        return dashboardCache.getMetrics();
+    }
+
+    private Map<String, Object> buildDashboardStats(String uid) {
         // Validate admin exists
         Admin admin = adminRepository.findByUid(uid)
             .orElseThrow(() -> new ResourceNotFoundException("Admin not found with uid: " + uid));
@@ -84,19 +112,12 @@ public class AdminServiceImpl implements AdminService {
         dashboardStats.put("locationStats", admin.getLocationStats());
         
         // Calculate completion rate
-        int totalIssues = (int) admin.getStats().getOrDefault("totalIssuesHandled", 0);
-        int completedIssues = (int) admin.getStats().getOrDefault("issuesResolved", 0) + 
-                              (int) admin.getStats().getOrDefault("issuesClosed", 0);
-        double completionRate = totalIssues > 0 ? (double) completedIssues / totalIssues * 100.0 : 0.0;
-        dashboardStats.put("completionRate", completionRate);
+        long totalIssues = admin.getStats().getTotalIssuesHandled();
+        dashboardStats.put("completionRate", admin.getStats().getCompletionRate());
         
         // Add recent issues handled by this admin
         List<StatusChangeLog> recentChanges = statusChangeLogRepository
-            .findByChangedByAdminUid(uid)
-            .stream()
-            .sorted(Comparator.comparing(StatusChangeLog::getChangedAt).reversed())
-            .limit(10)
-            .collect(Collectors.toList());
+            .findRecentByAdmin(uid, RECENT_CHANGES_LIMIT);
         
         dashboardStats.put("recentChanges", recentChanges);
         
@@ -115,14 +136,14 @@ public class AdminServiceImpl implements AdminService {
         }
         
         dashboardStats.put("recentActivityByStatus", activityByStatus);
+        dashboardStats.put("issuesPerDay", issuesPerDay(uid));
         
         // Get workload distribution - e.g., what percentage of all issues the admin has handled
-        int adminTotal = totalIssues;
+        long adminTotal = totalIssues;
         
         try {
-            // Get total issues in the system
-            Firestore firestore = FirestoreClient.getFirestore();
-            long systemTotal = firestore.collection("issues").get().get().size();
+            // Get total issues in the system (count aggregation, memoized)
+            long systemTotal = issueCountService.countAll();
             
             double workloadPercentage = systemTotal > 0 ? (double) adminTotal / systemTotal * 100.0 : 0.0;
             dashboardStats.put("workloadPercentage", workloadPercentage);
@@ -132,71 +153,102 @@ public class AdminServiceImpl implements AdminService {
             dashboardStats.put("workloadPercentage", 0.0);
         }
         
+        dashboardStats.put("generatedAt", new Date());
         return dashboardStats;
     }
 
+    /**
+     * Issues the admin resolved or closed on each of the last DEFAULT_ANALYTICS_DAYS
+     * days, from the daily rollups rather than an ever-growing map on the admin.
+     */
+    private Map<String, Long> issuesPerDay(String uid) {
+        LocalDate today = LocalDate.now();
+        Map<String, Long> perDay = new LinkedHashMap<>();
+        for (DailyAnalytics day : analyticsRollupRepository.findByDateRange(
+                today.minusDays(DEFAULT_ANALYTICS_DAYS - 1), today)) {
+            Map<String, Long> counts = day.getByAdmin().getOrDefault(uid, Map.of());
+            perDay.put(day.getDate(), counts.getOrDefault(DailyAnalytics.counterFor(IssueStatus.RESOLVED), 0L)
+                + counts.getOrDefault(DailyAnalytics.counterFor(IssueStatus.CLOSED), 0L));
+        }
+        return perDay;
+    }
+
+    /**
+     * Applies the status change, writes the audit log and updates the admin's
+     * stats in a single Firestore transaction.
+     */
     @Override
     public Issue updateIssueStatus(String issueId, IssueStatus newStatus, String adminUid, String notes) {
         logger.info("Admin [{}] updating issue [{}] status to: {}", adminUid, issueId, newStatus);
         
         try {
             Firestore firestore = FirestoreClient.getFirestore();
+            DocumentReference adminRef = adminRepository.getReference(adminUid);
+            DocumentReference issueRef = issueService.getIssueReference(issueId);
             
-            // Verify admin exists
-            Admin admin = adminRepository.findByUid(adminUid)
-                .orElseThrow(() -> new ResourceNotFoundException("Admin not found with uid: " + adminUid));
-            
-            // Get the issue
-            DocumentReference issueRef = firestore.collection("issues").document(issueId);
-            DocumentSnapshot issueDoc = issueRef.get().get();
-            
-            if (!issueDoc.exists()) {
-                throw new ResourceNotFoundException("Issue not found with id: " + issueId);
-            }
-            
-            Issue issue = issueDoc.toObject(Issue.class);
-            IssueStatus previousStatus = issue.getStatus();
-            
-            // Update issue status using the IssueService method with all parameters
-            Issue updatedIssue = issueService.updateIssueStatus(issueId, newStatus, adminUid, notes);
-            
-            // Create status change log
-            StatusChangeLog log = new StatusChangeLog(
-                issueId,
-                previousStatus,
-                newStatus,
-                adminUid,
-                admin.getName(),
-                notes
-            );
-            
-            statusChangeLogRepository.save(log);
-            
-            // Update admin stats
-            adminRepository.updateStats(adminUid, previousStatus, newStatus);
-            
-            // Update the enhanced metrics 
-            // These methods would normally be called within the AdminRepository,
-            // but for demonstration purposes, we're showing them here
-            admin.updatePerformanceMetrics(updatedIssue, newStatus);
-            admin.updateCategoryStats(updatedIssue, newStatus);
-            admin.updateLocationStats(updatedIssue, newStatus);
-            admin.updateTimeMetrics(updatedIssue, newStatus);
-            
-            // Save the updated admin data
-            adminRepository.save(admin);
+            Issue updatedIssue = firestore.runTransaction(transaction -> {
+                List<DocumentSnapshot> snapshots = transaction.getAll(adminRef, issueRef).get();
+                DocumentSnapshot adminDoc = snapshots.get(0);
+                DocumentSnapshot issueDoc = snapshots.get(1);
+                
+                // Verify admin and issue exist
+                if (!adminDoc.exists()) {
+                    throw new ResourceNotFoundException("Admin not found with uid: " + adminUid);
+                }
+                if (!issueDoc.exists()) {
+                    throw new ResourceNotFoundException("Issue not found with id: " + issueId);
+                }
+                
+                IssueStatus previousStatus = issueDoc.toObject(Issue.class).getStatus();
+                Issue issue = issueService.stageAdminStatusChange(transaction, issueDoc, newStatus, adminUid, notes);
+                
+                // Create status change log
+                StatusChangeLog log = new StatusChangeLog(
+                    issueId,
+                    previousStatus,
+                    newStatus,
+                    adminUid,
+                    adminDoc.getString("name"),
+                    notes
+                );
+                statusChangeLogRepository.save(transaction, log);
+                analyticsRollupRepository.stageStatusChange(transaction, log, issue);
+                
+                // Update admin stats and metrics
+                adminRepository.stageStatusChange(transaction, adminDoc, issue, previousStatus, newStatus);
+                return issue;
+            }).get();
             
+            issueService.issueChanged(updatedIssue);
+            dashboardCache.invalidate(adminUid);
             return updatedIssue;
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResourceNotFoundException) {
+                throw (ResourceNotFoundException) e.getCause();
+            }
+            logger.error("Error updating issue status: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to update issue status: " + e.getMessage());
+        } catch (InterruptedException e) {
             logger.error("Error updating issue status: {}", e.getMessage(), e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                 "Failed to update issue status: " + e.getMessage());
         }
     }
 
+    /**
+     * Returns one page of the issue's status changes, newest first. The
+     * per-issue metrics cover the whole history: they are computed from the
+     * page when it holds every log, and otherwise from targeted queries.
+     */
     @Override
-    public Map<String, Object> getIssueStatusHistory(String issueId) {
-        logger.info("Getting status history for issue: {}", issueId);
+    public Map<String, Object> getIssueStatusHistory(String issueId, int limit, String after) {
+        logger.info("Getting status history for issue: {} (limit: {}, after: {})", issueId, limit, after);
+        
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                "Limit must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
         
         // Get issue first to check if it exists
         try {
@@ -210,23 +262,31 @@ public class AdminServiceImpl implements AdminService {
             
             Issue issue = issueDoc.toObject(Issue.class);
             
-            // Get status change logs
-            List<StatusChangeLog> logs = statusChangeLogRepository.findByIssueId(issueId);
-            
-            // Sort by date (newest first)
-            logs.sort(Comparator.comparing(StatusChangeLog::getChangedAt).reversed());
+            // Get one page of status change logs (newest first), plus one to tell if more follow
+            List<StatusChangeLog> logs = statusChangeLogRepository.findByIssueId(issueId, limit + 1, after);
+            boolean hasMore = logs.size() > limit;
+            if (hasMore) {
+                logs = new ArrayList<>(logs.subList(0, limit));
+            }
+            boolean completeHistory = (after == null || after.isEmpty()) && !hasMore;
             
             Map<String, Object> history = new HashMap<>();
             history.put("issue", issue);
             history.put("statusChanges", logs);
+            history.put("nextCursor", hasMore ? logs.get(logs.size() - 1).getId() : null);
+            
+            long totalStatusChanges = completeHistory ? logs.size() : statusChangeLogRepository.countByIssueId(issueId);
             
             // Calculate performance metrics for this specific issue
-            if (!logs.isEmpty()) {
+            if (totalStatusChanges > 0) {
                 // Time to first response
-                StatusChangeLog firstResponse = logs.stream()
-                    .filter(log -> log.getPreviousStatus() == IssueStatus.OPEN)
-                    .min(Comparator.comparing(StatusChangeLog::getChangedAt))
-                    .orElse(null);
+                StatusChangeLog firstResponse = completeHistory
+                    ? logs.stream()
+                        .filter(log -> log.getPreviousStatus() == IssueStatus.OPEN)
+                        .min(Comparator.comparing(StatusChangeLog::getChangedAt))
+                        .orElse(null)
+                    : statusChangeLogRepository.findFirstByIssueIdAndFromStatus(issueId, IssueStatus.OPEN)
+                        .orElse(null);
                 
                 if (firstResponse != null && issue.getCreatedAt() != null) {
                     long responseTimeMillis = firstResponse.getChangedAt().getTime() - issue.getCreatedAt().getTime();
@@ -236,10 +296,13 @@ public class AdminServiceImpl implements AdminService {
                 
                 // Total resolution time if resolved
                 if (issue.getStatus() == IssueStatus.RESOLVED || issue.getStatus() == IssueStatus.CLOSED) {
-                    StatusChangeLog resolution = logs.stream()
-                        .filter(log -> log.getNewStatus() == IssueStatus.RESOLVED || log.getNewStatus() == IssueStatus.CLOSED)
-                        .max(Comparator.comparing(StatusChangeLog::getChangedAt))
-                        .orElse(null);
+                    StatusChangeLog resolution = completeHistory
+                        ? logs.stream()
+                            .filter(log -> log.getNewStatus() == IssueStatus.RESOLVED || log.getNewStatus() == IssueStatus.CLOSED)
+                            .max(Comparator.comparing(StatusChangeLog::getChangedAt))
+                            .orElse(null)
+                        : statusChangeLogRepository.findLatestByIssueIdAndToStatusIn(issueId,
+                            Arrays.asList(IssueStatus.RESOLVED, IssueStatus.CLOSED)).orElse(null);
                     
                     if (resolution != null && issue.getCreatedAt() != null) {
                         long resolutionTimeMillis = resolution.getChangedAt().getTime() - issue.getCreatedAt().getTime();
@@ -249,7 +312,7 @@ public class AdminServiceImpl implements AdminService {
                 }
                 
                 // Number of status changes
-                history.put("totalStatusChanges", logs.size());
+                history.put("totalStatusChanges", totalStatusChanges);
             }
             
             return history;
@@ -260,39 +323,92 @@ public class AdminServiceImpl implements AdminService {
         }
     }
 
+    /**
+     * Aggregates the daily rollups for the range (both ends inclusive, default
+     * the last 30 days). Days before the rollups were introduced read as zero.
+     */
     @Override
     public Map<String, Object> getAnalytics(String startDateStr, String endDateStr) {
         logger.info("Getting analytics for period: {} to {}", startDateStr, endDateStr);
         
+        LocalDate endDate = LocalDate.now();
+        if (endDateStr != null && !endDateStr.isEmpty()) {
+            try {
+                endDate = LocalDate.parse(endDateStr);
+            } catch (DateTimeParseException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                    "Invalid end date format. Use yyyy-MM-dd");
+            }
+        }
+        
+        LocalDate startDate = endDate.minusDays(DEFAULT_ANALYTICS_DAYS - 1);
+        if (startDateStr != null && !startDateStr.isEmpty()) {
+            try {
+                startDate = LocalDate.parse(startDateStr);
+            } catch (DateTimeParseException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                    "Invalid start date format. Use yyyy-MM-dd");
+            }
+        }
+        
+        if (startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                "Start date must not be after end date");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_ANALYTICS_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                "Date range must not exceed " + MAX_ANALYTICS_DAYS + " days");
+        }
+        
         try {
-            // Parse dates if provided
-            Date startDate = null;
-            Date endDate = null;
+            List<DailyAnalytics> days = analyticsRollupRepository.findByDateRange(startDate, endDate);
             
-            if (startDateStr != null && !startDateStr.isEmpty()) {
-                try {
-                    startDate = new SimpleDateFormat("yyyy-MM-dd").parse(startDateStr);
-                } catch (ParseException e) {
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
-                        "Invalid start date format. Use yyyy-MM-dd");
-                }
-            }
+            long created = 0;
+            long resolved = 0;
+            long closed = 0;
+            long rejected = 0;
+            List<Map<String, Object>> issuesByDay = new ArrayList<>();
+            Map<String, Map<String, Long>> issuesByAdmin = new TreeMap<>();
+            Map<String, Map<String, Long>> issuesByLocation = new TreeMap<>();
             
-            if (endDateStr != null && !endDateStr.isEmpty()) {
-                try {
-                    // Add one day to include the end date fully
-                    endDate = new SimpleDateFormat("yyyy-MM-dd").parse(endDateStr);
-                    Calendar c = Calendar.getInstance();
-                    c.setTime(endDate);
-                    c.add(Calendar.DATE, 1);
-                    endDate = c.getTime();
-                } catch (ParseException e) {
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
-                        "Invalid end date format. Use yyyy-MM-dd");
-                }
+            for (DailyAnalytics day : days) {
+                created += day.getCreated();
+                resolved += day.getResolved();
+                closed += day.getClosed();
+                rejected += day.getRejected();
+                
+                Map<String, Object> dayStats = new LinkedHashMap<>();
+                dayStats.put("date", day.getDate());
+                dayStats.put("created", day.getCreated());
+                dayStats.put("resolved", day.getResolved());
+                dayStats.put("closed", day.getClosed());
+                dayStats.put("rejected", day.getRejected());
+                dayStats.put("inProgress", day.getInProgress());
+                dayStats.put("reopened", day.getReopened());
+                issuesByDay.add(dayStats);
+                
+                mergeCounts(issuesByAdmin, day.getByAdmin());
+                mergeCounts(issuesByLocation, day.getByLocation());
             }
             
-            return adminRepository.getAnalytics(startDateStr, endDateStr);
+            // Approval rate: resolved and closed as a share of everything handled
+            long handled = resolved + closed + rejected;
+            double approvalRate = handled > 0 ? (double) (resolved + closed) / handled * 100.0 : 0.0;
+            
+            Map<String, Object> analytics = new LinkedHashMap<>();
+            analytics.put("startDate", startDate.toString());
+            analytics.put("endDate", endDate.toString());
+            analytics.put("totalAdmins", adminRepository.count());
+            analytics.put("activeAdmins", issuesByAdmin.size());
+            analytics.put("totalIssuesCreated", created);
+            analytics.put("totalIssuesResolved", resolved);
+            analytics.put("totalIssuesClosed", closed);
+            analytics.put("totalIssuesRejected", rejected);
+            analytics.put("averageApprovalRate", approvalRate);
+            analytics.put("issuesByDay", issuesByDay);
+            analytics.put("issuesByAdmin", issuesByAdmin);
+            analytics.put("issuesByLocation", issuesByLocation);
+            return analytics;
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
@@ -301,4 +417,21 @@ public class AdminServiceImpl implements AdminService {
                 "Failed to get analytics: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+    
+    private static void mergeCounts(Map<String, Map<String, Long>> totals, Map<String, Map<String, Long>> day) {
+        if (day == null) {
+            return;
+        }
+        for (Map.Entry<String, Map<String, Long>> entry : day.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            Map<String, Long> counts = totals.computeIfAbsent(entry.getKey(), key -> new TreeMap<>());
+            entry.getValue().forEach((counter, count) -> {
+                if (count != null) {
+                    counts.merge(counter, count, Long::sum);
+                }
+            });
+        }
+    }
+} 
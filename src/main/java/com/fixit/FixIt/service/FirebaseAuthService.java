@@ -1,15 +1,16 @@
 package com.fixit.FixIt.service;
 
+import com.fixit.FixIt.repository.UsernameRepository;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.UserRecord;
 import com.google.firebase.auth.UserRecord.CreateRequest;
 import com.google.firebase.auth.FirebaseToken;
 import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
 import com.google.firebase.cloud.FirestoreClient;
 import com.google.firebase.ErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -27,16 +28,20 @@ import java.util.Date;
 @Service
 public class FirebaseAuthService {
     
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseAuthService.class);
+    
     @Value("${firebase.api-key}")
     private String firebaseApiKey;
     
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final UsernameRepository usernameRepository;
     private static final String FIREBASE_AUTH_BASE_URL = "https://identitytoolkit.googleapis.com/v1/accounts";
 
-    public FirebaseAuthService() {
+    public FirebaseAuthService(UsernameRepository usernameRepository) {
         this.restTemplate = new RestTemplate();
         this.objectMapper = new ObjectMapper();
+        this.usernameRepository = usernameRepository;
     }
 
     private String getFirebaseErrorMessage(ErrorCode errorCode) {
@@ -87,32 +92,13 @@ public class FirebaseAuthService {
     
     public UserRecord createUser(String email, String password, String name) throws FirebaseAuthException {
         try {
-            System.out.println("Creating user with email: " + email + " and name: " + name);
+            logger.info("Creating user account");
             
             // Generate username from name
             String baseUsername = name.toLowerCase().replaceAll("[^a-z0-9]", "");
-            String username = baseUsername;
-            int counter = 1;
-            
-            // Check if username exists and generate a unique one if needed
-            while (true) {
-                System.out.println("Checking if username exists: " + username);
-                QuerySnapshot usernameQuery = FirestoreClient.getFirestore()
-                    .collection("users")
-                    .whereEqualTo("username", username)
-                    .get()
-                    .get();
-
-                if (usernameQuery.isEmpty()) {
-                    System.out.println("Username is available: " + username);
-                    break;
-                }
-                System.out.println("Username already exists, trying next: " + baseUsername + counter);
-                username = baseUsername + counter++;
-            }
 
             // Create the user in Firebase Auth
-            System.out.println("Creating user in Firebase Auth");
+            logger.debug("Creating user in Firebase Auth");
             CreateRequest request = new CreateRequest()
                 .setEmail(email)
                 .setPassword(password)
@@ -120,14 +106,13 @@ public class FirebaseAuthService {
                 .setEmailVerified(false);
             
             UserRecord user = FirebaseAuth.getInstance().createUser(request);
-            System.out.println("User created in Firebase Auth with UID: " + user.getUid());
+            logger.debug("User created in Firebase Auth with UID: {}", user.getUid());
 
             // Store additional user data in Firestore
-            System.out.println("Storing user data in Firestore");
+            logger.debug("Storing user data in Firestore");
             Map<String, Object> userData = new HashMap<>();
             userData.put("uid", user.getUid());
             userData.put("email", email);
-            userData.put("username", username);
             userData.put("displayName", name);
             userData.put("name", name);
             userData.put("role", "USER");
@@ -140,25 +125,20 @@ public class FirebaseAuthService {
             notificationPrefs.put("communityActivity", false);
             userData.put("notificationPreferences", notificationPrefs);
 
-            FirestoreClient.getFirestore()
-                .collection("users")
-                .document(user.getUid())
-                .set(userData)
-                .get();
-            System.out.println("User data stored in Firestore");
+            // Reserves the first free username and writes the user document atomically
+            String username = usernameRepository.createUserWithUsername(user.getUid(), email, baseUsername, userData);
+            logger.info("User {} stored in Firestore with username {}", user.getUid(), username);
 
             return user;
         } catch (FirebaseAuthException e) {
-            System.err.println("FirebaseAuthException in createUser: " + e.getMessage());
+            logger.warn("FirebaseAuthException in createUser: {}", e.getMessage());
             String errorMessage = getFirebaseErrorMessage(e.getErrorCode());
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, errorMessage);
-        } catch (InterruptedException | ExecutionException e) {
-            System.err.println("InterruptedException or ExecutionException in createUser: " + e.getMessage());
-            e.printStackTrace();
+        } catch (RuntimeException e) {
+            logger.error("Firestore error in createUser: {}", e.getMessage(), e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to create account at this time. Please try again later.");
         } catch (Exception e) {
-            System.err.println("Unexpected exception in createUser: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Unexpected exception in createUser: {}", e.getMessage(), e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred: " + e.getMessage());
         }
     }
@@ -172,18 +152,8 @@ public class FirebaseAuthService {
                 email = loginIdentifier;
             } else {
                 // Find user by username
-                QuerySnapshot usernameQuery = FirestoreClient.getFirestore()
-                    .collection("users")
-                    .whereEqualTo("username", loginIdentifier)
-                    .limit(1)
-                    .get()
-                    .get();
-
-                if (usernameQuery.isEmpty()) {
-                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No account found with this username.");
-                }
-
-                email = usernameQuery.getDocuments().get(0).getString("email");
+                email = usernameRepository.findEmailByUsername(loginIdentifier)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No account found with this username."));
             }
 
             // Authenticate with Firebase using email/password
@@ -224,26 +194,23 @@ public class FirebaseAuthService {
                 
                 // Ensure username is included
                 if (userResponse.get("username") == null) {
-                    System.err.println("Username is missing in user data from Firestore");
-                    // Try to get username from displayName or email as fallback
-                    String username = null;
+                    logger.warn("User {} has no username, reserving one", uid);
+                    // Derive the username from the name, display name or email as a fallback
+                    String baseUsername = null;
                     
                     if (userResponse.get("name") != null) {
-                        username = ((String) userResponse.get("name")).toLowerCase().replaceAll("[^a-z0-9]", "");
+                        baseUsername = (String) userResponse.get("name");
                     } else if (userResponse.get("displayName") != null) {
-                        username = ((String) userResponse.get("displayName")).toLowerCase().replaceAll("[^a-z0-9]", "");
+                        baseUsername = (String) userResponse.get("displayName");
                     } else if (userResponse.get("email") != null) {
-                        username = ((String) userResponse.get("email")).split("@")[0];
+                        baseUsername = ((String) userResponse.get("email")).split("@")[0];
                     }
                     
-                    if (username != null) {
-                        userResponse.put("username", username);
-                        // Update the username in Firestore
-                        FirestoreClient.getFirestore()
-                            .collection("users")
-                            .document(uid)
-                            .update("username", username)
-                            .get();
+                    try {
+                        // Reserved like any other username, so it cannot collide with another user's
+                        userResponse.put("username", usernameRepository.assignUsername(uid, email, baseUsername));
+                    } catch (RuntimeException e) {
+                        logger.warn("Failed to reserve a username for user {}: {}", uid, e.getMessage());
                     }
                 }
 
@@ -263,8 +230,7 @@ public class FirebaseAuthService {
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
-            System.err.println("Error in signIn method: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error in signIn method: {}", e.getMessage(), e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to sign in at this time. Please try again.");
         }
     }
@@ -279,32 +245,18 @@ public class FirebaseAuthService {
     
     public void updateUserProfile(String uid, String displayName) throws FirebaseAuthException {
         try {
-            // Check if new username is already taken
-            QuerySnapshot usernameQuery = FirestoreClient.getFirestore()
-                .collection("users")
-                .whereEqualTo("username", displayName)
-                .get()
-                .get();
-
-            if (!usernameQuery.isEmpty() && 
-                !usernameQuery.getDocuments().get(0).getId().equals(uid)) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "This username is already taken. Please choose a different one.");
-            }
+            // Move the username reservation; fails if another user holds the name
+            usernameRepository.changeUsername(uid, displayName);
 
             // Update in Firebase Auth
             UserRecord.UpdateRequest request = new UserRecord.UpdateRequest(uid)
                 .setDisplayName(displayName);
             FirebaseAuth.getInstance().updateUser(request);
-
-            // Update in Firestore
-            FirestoreClient.getFirestore()
-                .collection("users")
-                .document(uid)
-                .update("username", displayName)
-                .get();
         } catch (FirebaseAuthException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unable to update profile. Please try again.");
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (RuntimeException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to update profile at this time. Please try again later.");
         }
     }
@@ -395,32 +347,10 @@ public class FirebaseAuthService {
                 notificationPrefs.put("communityActivity", false);
                 userData.put("notificationPreferences", notificationPrefs);
 
-                // Generate unique username
+                // Reserve a unique username and store in Firestore
                 String baseUsername = name.toLowerCase().replaceAll("[^a-z0-9]", "");
-                String username = baseUsername;
-                int counter = 1;
-                
-                while (true) {
-                    QuerySnapshot usernameQuery = FirestoreClient.getFirestore()
-                        .collection("users")
-                        .whereEqualTo("username", username)
-                        .get()
-                        .get();
-                    
-                    if (usernameQuery.isEmpty()) {
-                        break;
-                    }
-                    username = baseUsername + counter++;
-                }
-                
+                String username = usernameRepository.createUserWithUsername(uid, email, baseUsername, userData);
                 userData.put("username", username);
-
-                // Store in Firestore
-                FirestoreClient.getFirestore()
-                    .collection("users")
-                    .document(uid)
-                    .set(userData)
-                    .get();
             } else {
                 // Update existing user
                 userData = userDoc.getData();
@@ -455,11 +385,11 @@ public class FirebaseAuthService {
             
             return userData;
         } catch (HttpClientErrorException e) {
-            System.err.println("Google Auth Error: " + e.getResponseBodyAsString());
+            logger.warn("Google Auth Error: {}", e.getResponseBodyAsString());
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, 
                 "Failed to authenticate with Google. Please try again.");
         } catch (Exception e) {
-            System.err.println("Error during Google sign-in: " + e.getMessage());
+            logger.error("Error during Google sign-in: {}", e.getMessage(), e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                 "An error occurred during Google sign-in. Please try again.");
         }
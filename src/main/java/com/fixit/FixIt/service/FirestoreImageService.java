@@ -1,48 +1,68 @@
 package com.fixit.FixIt.service;
 
 import com.fixit.FixIt.dto.UploadImageRequest;
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.Firestore;
-import com.google.firebase.cloud.FirestoreClient;
+import com.fixit.FixIt.model.ImageMetadata;
+import com.fixit.FixIt.model.ImageSize;
+import com.fixit.FixIt.model.ImageVariant;
+import com.fixit.FixIt.repository.ImageRepository;
+import com.fixit.FixIt.util.ImageUrlUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ExecutionException;
+import java.util.HexFormat;
+import java.util.List;
 
 @Service
 public class FirestoreImageService {
     private static final Logger logger = LoggerFactory.getLogger(FirestoreImageService.class);
-    private static final String COLLECTION_NAME = "images";
+    private static final int MAX_EXPIRED_PER_SWEEP = 100;
     
     private final IssueService issueService;
+    private final ImageRepository imageRepository;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageETagCache imageETagCache;
+    private final ImageByteCache imageByteCache;
+    private final long uploadHoldMillis;
     
-    public FirestoreImageService(IssueService issueService) {
+    public FirestoreImageService(
+            IssueService issueService,
+            ImageRepository imageRepository,
+            ImageDerivativeService imageDerivativeService,
+            ImageETagCache imageETagCache,
+            ImageByteCache imageByteCache,
+            @Value("${images.upload-hold-hours:24}") long uploadHoldHours) {
         this.issueService = issueService;
+        this.imageRepository = imageRepository;
+        this.imageDerivativeService = imageDerivativeService;
+        this.imageETagCache = imageETagCache;
+        this.imageByteCache = imageByteCache;
+        this.uploadHoldMillis = uploadHoldHours * 60 * 60 * 1000;
     }
     
     public String uploadImage(MultipartFile file) {
+        // Add metadata
+        String contentType = file.getContentType();
+        if (contentType == null) {
+            contentType = "image/jpeg";
+        }
+
+        // Stream the upload into chunked storage
         try {
-            // Convert MultipartFile to Base64
-            byte[] fileContent = file.getBytes();
-            String base64Content = Base64.getEncoder().encodeToString(fileContent);
-            
-            // Add metadata
-            String contentType = file.getContentType();
-            if (contentType == null) {
-                contentType = "image/jpeg";
-            }
-            
-            // Store in Firestore
-            return storeImageInFirestore(base64Content, contentType, file.getOriginalFilename());
+            return storeImage(file, contentType, file.getOriginalFilename());
         } catch (IOException e) {
             logger.error("Failed to process image file", e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
@@ -64,8 +84,15 @@ public class FirestoreImageService {
                 }
             }
             
-            // Store in Firestore
-            return storeImageInFirestore(base64Content, contentType, null);
+            // Decode while hashing and storing, one chunk at a time
+            byte[] encoded = base64Content.getBytes(StandardCharsets.ISO_8859_1);
+            return storeImage(() -> Base64.getDecoder().wrap(new ByteArrayInputStream(encoded)), contentType, null);
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (IOException e) {
+            logger.error("Invalid base64 image", e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                "Invalid base64 image format: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Failed to process base64 image", e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
@@ -73,35 +100,51 @@ public class FirestoreImageService {
         }
     }
     
-    private String storeImageInFirestore(String base64Content, String contentType, String originalFilename) {
+    /**
+     * Stores an image under the SHA-256 of its bytes. The content is read
+     * twice: once to hash it, so that a duplicate upload returns the existing
+     * image without storing anything, and once to store it. Either way the
+     * image is held for images.upload-hold-hours, so it is not deleted with
+     * the last issue using it before this upload is attached.
+     */
+    private String storeImage(InputStreamSource source, String contentType, String originalFilename) throws IOException {
+        String imageId;
+        try (InputStream content = source.getInputStream()) {
+            imageId = sha256(content);
+        }
+        
+        long heldUntil = System.currentTimeMillis() + uploadHoldMillis;
+        if (imageRepository.hold(imageId, heldUntil)) {
+            logger.info("Duplicate upload of image {}, reusing the stored copy", imageId);
+            return ImageUrlUtil.imageUrl(imageId);
+        }
+        
+        ImageMetadata metadata;
+        try (InputStream content = source.getInputStream()) {
+            metadata = imageRepository.save(imageId, content, contentType, originalFilename, heldUntil);
+        }
+        
+        // Thumbnail and medium renditions are generated in the background
+        imageDerivativeService.schedule(metadata);
+        
+        // Return URL-like identifier
+        return ImageUrlUtil.imageUrl(metadata.getId());
+    }
+    
+    private static String sha256(InputStream content) throws IOException {
+        MessageDigest digest;
         try {
-            Firestore firestore = FirestoreClient.getFirestore();
-            
-            // Generate unique ID
-            String imageId = UUID.randomUUID().toString();
-            
-            // Create document with image data
-            Map<String, Object> imageData = new HashMap<>();
-            imageData.put("id", imageId);
-            imageData.put("data", base64Content);
-            imageData.put("contentType", contentType);
-            imageData.put("createdAt", System.currentTimeMillis());
-            
-            if (originalFilename != null) {
-                imageData.put("originalFilename", originalFilename);
-            }
-            
-            // Save to Firestore
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(imageId);
-            docRef.set(imageData).get();
-            
-            // Return URL-like identifier
-            return "/api/images/" + imageId;
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Failed to store image in Firestore", e);
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
-                "Failed to store image: " + e.getMessage());
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
         }
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
     }
     
     public String addImageToIssue(UploadImageRequest request) {
@@ -124,23 +167,88 @@ public class FirestoreImageService {
         }
     }
     
-    public Map<String, Object> getImage(String imageId) {
+    /**
+     * Deletes images released while held by an upload that was never attached.
+     */
+    @Scheduled(fixedDelayString = "${images.expiry-sweep-interval-ms:600000}")
+    public void deleteExpiredImages() {
         try {
-            Firestore firestore = FirestoreClient.getFirestore();
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(imageId);
-            
-            Map<String, Object> imageData = docRef.get().get().getData();
-            if (imageData == null) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found");
+            List<String> deleted = imageRepository.deleteExpired(MAX_EXPIRED_PER_SWEEP);
+            for (String imageId : deleted) {
+                imageETagCache.evict(imageId);
+                imageByteCache.evict(imageId);
             }
-            
-            return imageData;
-        } catch (ResponseStatusException e) {
-            throw e;
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Failed to retrieve image from Firestore", e);
+            if (!deleted.isEmpty()) {
+                logger.info("Deleted {} expired images", deleted.size());
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to delete expired images: {}", e.getMessage());
+        }
+    }
+    
+    public ImageMetadata getImage(String imageId) {
+        return imageRepository.findById(imageId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found"));
+    }
+    
+    /**
+     * ETag of a rendition already served by this instance, or null.
+     */
+    public String getCachedETag(String imageId, ImageSize size) {
+        return imageETagCache.get(imageId, size);
+    }
+    
+    /**
+     * Bytes of a rendition held in memory by this instance, or null.
+     */
+    public ImageByteCache.CachedImage getCachedImage(String imageId, ImageSize size) {
+        return imageByteCache.get(imageId, size);
+    }
+    
+    /**
+     * Strong ETag of the bytes served for a size: the quoted SHA-256 stored at
+     * upload. Null for inline images stored before hashes were recorded.
+     */
+    public String getETag(ImageMetadata metadata, ImageSize size) {
+        ImageVariant variant = metadata.variant(size);
+        String sha256 = variant != null ? variant.getSha256() : metadata.getSha256();
+        if (sha256 == null) {
+            return null;
+        }
+        String etag = "\"" + sha256 + "\"";
+        if (metadata.hasFinalRendition(size)) {
+            imageETagCache.put(metadata.getId(), size, etag);
+        }
+        return etag;
+    }
+    
+    /**
+     * Opens a stream over the image's bytes in the requested size; the caller
+     * closes it. A size whose rendition has not been stored yet is served the
+     * original, and the rendition is scheduled. Final renditions small
+     * enough for the byte cache are read whole and cached.
+     */
+    public InputStream openImage(ImageMetadata metadata, ImageSize size) {
+        ImageVariant variant = metadata.variant(size);
+        if (size.isDerived() && variant == null) {
+            imageDerivativeService.schedule(metadata);
+        }
+        InputStream content = imageRepository.openStream(metadata, size);
+        long length = variant != null ? variant.getSize() : metadata.getSize();
+        if (!metadata.hasFinalRendition(size) || !imageByteCache.admits(length)) {
+            return content;
+        }
+        
+        byte[] bytes;
+        try (content) {
+            bytes = content.readAllBytes();
+        } catch (IOException e) {
+            logger.error("Failed to read image {}", metadata.getId(), e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                 "Failed to retrieve image: " + e.getMessage());
         }
+        ImageByteCache.CachedImage cached = imageByteCache.put(metadata.getId(), size,
+            variant != null ? variant.getContentType() : metadata.getContentType(), getETag(metadata, size), bytes);
+        return cached != null ? cached.openStream() : new ByteArrayInputStream(bytes);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
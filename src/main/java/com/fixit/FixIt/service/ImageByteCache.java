@@ -0,0 +1,186 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.ImageSize;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory LRU cache of image bytes, bounded by total size rather than
+ * entry count (images.byte-cache.max-bytes).
+ *
+ * Only final renditions no larger than images.byte-cache.max-image-bytes are
+ * admitted, so a few large originals cannot flush the thumbnails of every
+ * trending issue. With images.byte-cache.off-heap the bytes are kept in direct
+ * buffers outside the Java heap. A hit is served without any datastore read.
+ */
+@Component
+public class ImageByteCache {
+
+    private final long maxBytes;
+    private final long maxImageBytes;
+    private final boolean offHeap;
+
+    private final LinkedHashMap<String, CachedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ImageByteCache(
+            @Value("${images.byte-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${images.byte-cache.max-image-bytes:2097152}") long maxImageBytes,
+            @Value("${images.byte-cache.off-heap:false}") boolean offHeap) {
+        this.maxBytes = maxBytes;
+        this.maxImageBytes = Math.min(maxImageBytes, maxBytes);
+        this.offHeap = offHeap;
+    }
+
+    public boolean admits(long length) {
+        return length > 0 && length <= maxImageBytes;
+    }
+
+    public CachedImage get(String imageId, ImageSize size) {
+        CachedImage image;
+        synchronized (this) {
+            image = images.get(key(imageId, size));
+        }
+        (image != null ? hits : misses).incrementAndGet();
+        return image;
+    }
+
+    /**
+     * Stores a rendition's bytes, evicting least recently used images to stay
+     * within the budget.
+     *
+     * @return The cached image, or null if it is too large to be admitted
+     */
+    public CachedImage put(String imageId, ImageSize size, String contentType, String etag, byte[] bytes) {
+        if (!admits(bytes.length)) {
+            return null;
+        }
+        ByteBuffer buffer = offHeap
+            ? ByteBuffer.allocateDirect(bytes.length).put(bytes).flip()
+            : ByteBuffer.wrap(bytes);
+        CachedImage image = new CachedImage(contentType, etag, buffer.asReadOnlyBuffer());
+
+        synchronized (this) {
+            CachedImage previous = images.put(key(imageId, size), image);
+            if (previous != null) {
+                totalBytes -= previous.getLength();
+            }
+            totalBytes += image.getLength();
+
+            Iterator<CachedImage> eldest = images.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                CachedImage evicted = eldest.next();
+                eldest.remove();
+                totalBytes -= evicted.getLength();
+                evictions.incrementAndGet();
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Drops every size of a deleted image.
+     */
+    public synchronized void evict(String imageId) {
+        for (ImageSize size : ImageSize.values()) {
+            CachedImage image = images.remove(key(imageId, size));
+            if (image != null) {
+                totalBytes -= image.getLength();
+            }
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hits", hitCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRate", requests > 0 ? (double) hitCount / requests * 100.0 : 0.0);
+        metrics.put("evictions", evictions.get());
+        synchronized (this) {
+            metrics.put("entries", images.size());
+            metrics.put("bytes", totalBytes);
+        }
+        metrics.put("maxBytes", maxBytes);
+        metrics.put("maxImageBytes", maxImageBytes);
+        metrics.put("offHeap", offHeap);
+        return metrics;
+    }
+
+    private static String key(String imageId, ImageSize size) {
+        return imageId + "/" + size.getParam();
+    }
+
+    /**
+     * A cached rendition with the headers it is served with.
+     */
+    public static final class CachedImage {
+        private final String contentType;
+        private final String etag;
+        private final ByteBuffer bytes;
+
+        CachedImage(String contentType, String etag, ByteBuffer bytes) {
+            this.contentType = contentType;
+            this.etag = etag;
+            this.bytes = bytes;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public int getLength() {
+            return bytes.remaining();
+        }
+
+        /**
+         * A stream over the bytes; each call reads from its own view, so
+         * concurrent responses do not interfere.
+         */
+        public InputStream openStream() {
+            ByteBuffer view = bytes.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return view.hasRemaining() ? view.get() & 0xff : -1;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    if (length == 0) {
+                        return 0;
+                    }
+                    if (!view.hasRemaining()) {
+                        return -1;
+                    }
+                    int count = Math.min(length, view.remaining());
+                    view.get(buffer, offset, count);
+                    return count;
+                }
+
+                @Override
+                public int available() {
+                    return view.remaining();
+                }
+            };
+        }
+    }
+}
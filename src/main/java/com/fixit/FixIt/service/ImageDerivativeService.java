@@ -0,0 +1,209 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.ImageMetadata;
+import com.fixit.FixIt.model.ImageSize;
+import com.fixit.FixIt.model.ImageVariant;
+import com.fixit.FixIt.repository.ImageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the thumbnail and medium renditions of uploaded images.
+ *
+ * Decoding a photo takes several times its file size in memory, so renditions
+ * are produced by a fixed number of worker threads with a bounded queue
+ * (images.derivatives.*). When the queue is full the work is skipped rather
+ * than piling up; a request for a missing rendition is served the original and
+ * schedules it again. The image header is read before decoding, and images
+ * with more than images.derivatives.max-pixels pixels are never decoded, since
+ * a small compressed upload can declare enough pixels to exhaust the heap.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final ImageRepository imageRepository;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    // Images queued or being processed, so each is scheduled once at a time
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+
+    public ImageDerivativeService(
+            ImageRepository imageRepository,
+            @Value("${images.derivatives.threads:2}") int threads,
+            @Value("${images.derivatives.queue-capacity:100}") int queueCapacity,
+            @Value("${images.derivatives.max-pixels:40000000}") long maxPixels) {
+        this.imageRepository = imageRepository;
+        this.maxPixels = maxPixels;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "image-derivatives-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Queues generation of the image's missing renditions.
+     *
+     * @return false if the queue is full and nothing was scheduled
+     */
+    public boolean schedule(ImageMetadata metadata) {
+        if (metadata.isDerivativesGenerated() || !scheduled.add(metadata.getId())) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(metadata);
+                } finally {
+                    scheduled.remove(metadata.getId());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            scheduled.remove(metadata.getId());
+            logger.debug("Derivative queue full, skipping image {}", metadata.getId());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void generate(ImageMetadata metadata) {
+        try {
+            BufferedImage original = decode(metadata);
+            if (original == null) {
+                // Unsupported format (e.g. WebP) or too many pixels; the original is served for every size
+                imageRepository.markDerivativesGenerated(metadata.getId());
+                return;
+            }
+
+            for (ImageSize size : ImageSize.values()) {
+                int longestSide = Math.max(original.getWidth(), original.getHeight());
+                if (!size.isDerived() || metadata.variant(size) != null || longestSide <= size.getMaxDimension()) {
+                    continue;
+                }
+                BufferedImage scaled = scale(original, size.getMaxDimension());
+                boolean alpha = scaled.getColorModel().hasAlpha();
+                byte[] encoded = alpha ? encodePng(scaled) : encodeJpeg(scaled);
+                ImageVariant variant = new ImageVariant(alpha ? "image/png" : "image/jpeg",
+                    scaled.getWidth(), scaled.getHeight());
+                imageRepository.saveVariant(metadata, size, variant, new ByteArrayInputStream(encoded));
+                logger.debug("Stored {} rendition of image {} ({} bytes)", size.getParam(), metadata.getId(), encoded.length);
+            }
+            imageRepository.markDerivativesGenerated(metadata.getId());
+        } catch (Exception e) {
+            logger.warn("Failed to generate renditions for image {}: {}", metadata.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Decodes the original image, after checking its dimensions from the header.
+     *
+     * @return The image, or null if no reader supports the format or it has
+     *         more than maxPixels pixels
+     */
+    private BufferedImage decode(ImageMetadata metadata) throws IOException {
+        try (InputStream content = imageRepository.openStream(metadata, ImageSize.FULL);
+             ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                logger.debug("Cannot decode image {} for derivatives", metadata.getId());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    logger.info("Skipping renditions of image {}: {}x{} exceeds {} pixels",
+                        metadata.getId(), reader.getWidth(0), reader.getHeight(0), maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales the image to fit maxDimension, halving in steps so that bilinear
+     * filtering does not skip pixels on large reductions.
+     */
+    private static BufferedImage scale(BufferedImage image, int maxDimension) {
+        double ratio = (double) maxDimension / Math.max(image.getWidth(), image.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutputStream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", outputStream);
+        return outputStream.toByteArray();
+    }
+}
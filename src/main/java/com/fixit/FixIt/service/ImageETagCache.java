@@ -0,0 +1,52 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.ImageSize;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ETags of recently served image renditions, so a conditional GET for an
+ * unchanged image is answered with 304 without reading the image document.
+ *
+ * Only final renditions are recorded: the bytes behind an image ID and size
+ * never change once served, so entries need no expiry and are evicted LRU
+ * (images.etag-cache.max-entries). The cache is local to this instance.
+ */
+@Component
+public class ImageETagCache {
+
+    private final Map<String, String> etags;
+
+    public ImageETagCache(@Value("${images.etag-cache.max-entries:10000}") int maxEntries) {
+        this.etags = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized String get(String imageId, ImageSize size) {
+        return etags.get(key(imageId, size));
+    }
+
+    public synchronized void put(String imageId, ImageSize size, String etag) {
+        etags.put(key(imageId, size), etag);
+    }
+
+    /**
+     * Forgets every size of a deleted image.
+     */
+    public synchronized void evict(String imageId) {
+        for (ImageSize size : ImageSize.values()) {
+            etags.remove(key(imageId, size));
+        }
+    }
+
+    private static String key(String imageId, ImageSize size) {
+        return imageId + "/" + size.getParam();
+    }
+}
@@ -0,0 +1,303 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.dto.IssueCluster;
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.model.IssueStatus;
+import com.fixit.FixIt.util.GeoHashUtil;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Multi-resolution grid of issue counts used to serve map clusters.
+ *
+ * Every issue with coordinates is counted in one geohash cell per level
+ * (precision 1 to MAX_LEVEL). Each cell keeps per-status counts and coordinate
+ * sums, so a cluster's count, centroid and status breakdown are read directly
+ * from the grid. The grid is built from Firestore on startup and updated by the
+ * IssueService write paths; like the search index it is local to this instance
+ * and catches up with other instances' writes through IssueIndexSync.
+ */
+@Component
+public class IssueClusterIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssueClusterIndex.class);
+    private static final String COLLECTION_NAME = "issues";
+    private static final int BOOTSTRAP_BATCH_SIZE = 500;
+    private static final int MAX_LEVEL = 8;
+    private static final int MAX_ZOOM = 22;
+    private static final int VIEWPORT_CELLS = 16;
+    private static final int STATUS_COUNT = IssueStatus.values().length;
+
+    // level -> (geohash cell -> aggregates), level index 0 is unused
+    private final List<TreeMap<String, Cell>> levels = new ArrayList<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public IssueClusterIndex() {
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            levels.add(new TreeMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        CompletableFuture.runAsync(this::rebuild);
+    }
+
+    /**
+     * Loads every issue's position and status into the grid.
+     */
+    public void rebuild() {
+        try {
+            long started = System.currentTimeMillis();
+            Query query = FirestoreClient.getFirestore().collection(COLLECTION_NAME)
+                .select("latitude", "longitude", "status", "updatedAt")
+                .orderBy(FieldPath.documentId())
+                .limit(BOOTSTRAP_BATCH_SIZE);
+
+            int loaded = 0;
+            DocumentSnapshot lastDocument = null;
+            while (true) {
+                Query batch = lastDocument == null ? query : query.startAfter(lastDocument);
+                List<QueryDocumentSnapshot> documents = batch.get().get().getDocuments();
+                for (QueryDocumentSnapshot document : documents) {
+                    Issue issue = document.toObject(Issue.class);
+                    issue.setId(document.getId());
+                    indexIfNewer(issue);
+                }
+                loaded += documents.size();
+                if (documents.size() < BOOTSTRAP_BATCH_SIZE) {
+                    break;
+                }
+                lastDocument = documents.get(documents.size() - 1);
+            }
+
+            ready = true;
+            logger.info("Issue cluster grid built from {} issues in {} ms",
+                loaded, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Failed to build issue cluster grid: {}", e.getMessage(), e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds an issue to the grid, moving it if its position or status changed.
+     */
+    public void index(Issue issue) {
+        if (issue == null || issue.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeEntry(issue.getId());
+            if (issue.getLatitude() == null || issue.getLongitude() == null) {
+                return;
+            }
+            IssueStatus status = issue.getStatus() != null ? issue.getStatus() : IssueStatus.OPEN;
+            Entry entry = new Entry(GeoHashUtil.encode(issue.getLatitude(), issue.getLongitude(), MAX_LEVEL),
+                issue.getLatitude(), issue.getLongitude(), status, issue.getUpdatedAt());
+            for (int level = 1; level <= MAX_LEVEL; level++) {
+                levels.get(level).computeIfAbsent(entry.geohash.substring(0, level), cell -> new Cell())
+                    .add(entry, 1);
+            }
+            entries.put(issue.getId(), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String issueId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(issueId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clusters for a map viewport.
+     *
+     * @param minLat South edge of the viewport
+     * @param minLng West edge of the viewport
+     * @param maxLat North edge of the viewport
+     * @param maxLng East edge of the viewport
+     * @param zoom Web map zoom level (0-22); higher zooms use finer cells
+     * @param status Optional status filter
+     * @return One cluster per non-empty cell whose centroid lies in the viewport
+     */
+    public List<IssueCluster> clusters(double minLat, double minLng, double maxLat, double maxLng,
+                                       int zoom, String status) {
+        if (minLat < -90 || maxLat > 90 || minLng < -180 || maxLng > 180 || minLat > maxLat || minLng > maxLng) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid viewport bounds");
+        }
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Zoom must be between 0 and " + MAX_ZOOM);
+        }
+        IssueStatus statusFilter = parseStatus(status);
+        int level = levelForZoom(zoom);
+
+        // Coarse prefixes covering the viewport, each expanded to the level's cells
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String cell : GeoHashUtil.coveringCells(minLat, minLng, maxLat, maxLng, VIEWPORT_CELLS)) {
+            prefixes.add(cell.length() > level ? cell.substring(0, level) : cell);
+        }
+
+        List<IssueCluster> clusters = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            TreeMap<String, Cell> cells = levels.get(level);
+            for (String prefix : prefixes) {
+                for (Map.Entry<String, Cell> entry
+                        : cells.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+                    IssueCluster cluster = entry.getValue().toCluster(entry.getKey(), statusFilter);
+                    if (cluster != null
+                            && cluster.getLatitude() >= minLat && cluster.getLatitude() <= maxLat
+                            && cluster.getLongitude() >= minLng && cluster.getLongitude() <= maxLng) {
+                        clusters.add(cluster);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return clusters;
+    }
+
+    /**
+     * Picks the grid level whose cells are roughly an eighth of a map tile wide.
+     */
+    static int levelForZoom(int zoom) {
+        int lngBits = zoom + 3;
+        int level = (2 * lngBits - 1 + 4) / 5;
+        return Math.max(1, Math.min(MAX_LEVEL, level));
+    }
+
+    /**
+     * Adds an issue read from Firestore, unless a newer version of it is
+     * already in the grid.
+     */
+    public void indexIfNewer(Issue issue) {
+        // One write-lock hold, so no newer version can be indexed between the check and the update
+        lock.writeLock().lock();
+        try {
+            Entry existing = entries.get(issue.getId());
+            // A write path may have indexed a newer version while the bootstrap was running
+            if (existing != null && existing.updatedAt != null && issue.getUpdatedAt() != null
+                    && existing.updatedAt.after(issue.getUpdatedAt())) {
+                return;
+            }
+            index(issue);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeEntry(String issueId) {
+        Entry entry = entries.remove(issueId);
+        if (entry == null) {
+            return;
+        }
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            String key = entry.geohash.substring(0, level);
+            Cell cell = levels.get(level).get(key);
+            if (cell != null && cell.add(entry, -1) == 0) {
+                levels.get(level).remove(key);
+            }
+        }
+    }
+
+    private IssueStatus parseStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        try {
+            return IssueStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status value");
+        }
+    }
+
+    private static class Entry {
+        private final String geohash;
+        private final double latitude;
+        private final double longitude;
+        private final IssueStatus status;
+        private final Date updatedAt;
+
+        Entry(String geohash, double latitude, double longitude, IssueStatus status, Date updatedAt) {
+            this.geohash = geohash;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.status = status;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    /**
+     * Per-status counts and coordinate sums for one grid cell.
+     */
+    private static class Cell {
+        private final int[] counts = new int[STATUS_COUNT];
+        private final double[] latitudeSums = new double[STATUS_COUNT];
+        private final double[] longitudeSums = new double[STATUS_COUNT];
+        private int total;
+
+        int add(Entry entry, int delta) {
+            int i = entry.status.ordinal();
+            counts[i] += delta;
+            latitudeSums[i] += delta * entry.latitude;
+            longitudeSums[i] += delta * entry.longitude;
+            total += delta;
+            return total;
+        }
+
+        IssueCluster toCluster(String key, IssueStatus statusFilter) {
+            int count = 0;
+            double latitudeSum = 0;
+            double longitudeSum = 0;
+            Map<String, Integer> statusCounts = new LinkedHashMap<>();
+            for (IssueStatus status : IssueStatus.values()) {
+                int i = status.ordinal();
+                if (counts[i] == 0 || (statusFilter != null && statusFilter != status)) {
+                    continue;
+                }
+                count += counts[i];
+                latitudeSum += latitudeSums[i];
+                longitudeSum += longitudeSums[i];
+                statusCounts.put(status.name(), counts[i]);
+            }
+            if (count == 0) {
+                return null;
+            }
+            return new IssueCluster(key, latitudeSum / count, longitudeSum / count, count, statusCounts);
+        }
+    }
+}
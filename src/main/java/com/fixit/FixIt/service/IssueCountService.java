@@ -0,0 +1,95 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.IssueStatus;
+import com.google.cloud.firestore.Query;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Issue counts backed by server-side count() aggregation queries, so callers
+ * that only need a number never transfer the matching documents.
+ *
+ * Results are memoized for a short TTL; mutations that change counts call
+ * {@link #invalidate()} so a user's own writes show up immediately.
+ */
+@Service
+public class IssueCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssueCountService.class);
+    private static final String COLLECTION_NAME = "issues";
+    private static final int MAX_ENTRIES = 1000;
+
+    private final Map<String, CachedCount> cache = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+
+    public IssueCountService(@Value("${issues.count-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * Counts the documents matched by a query.
+     * @param key Cache key identifying the query's filters
+     * @param query Query to count; ordering and projection are ignored
+     * @return Number of matching documents
+     */
+    public long count(String key, Query query) throws ExecutionException, InterruptedException {
+        long now = System.currentTimeMillis();
+        CachedCount cached = cache.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.value;
+        }
+
+        long value = query.count().get().get().getCount();
+        if (cache.size() >= MAX_ENTRIES) {
+            cache.values().removeIf(entry -> entry.expiresAt <= now);
+            if (cache.size() >= MAX_ENTRIES) {
+                cache.clear();
+            }
+        }
+        cache.put(key, new CachedCount(value, now + ttlMillis));
+        logger.debug("Counted {} issues for key: {}", value, key);
+        return value;
+    }
+
+    public long countAll() throws ExecutionException, InterruptedException {
+        return count("all", FirestoreClient.getFirestore().collection(COLLECTION_NAME));
+    }
+
+    public long countByReporter(String reporterUid) throws ExecutionException, InterruptedException {
+        Query query = FirestoreClient.getFirestore().collection(COLLECTION_NAME)
+            .whereEqualTo("reporterUid", reporterUid);
+        return count("reporter:" + reporterUid, query);
+    }
+
+    public long countByReporterAndStatus(String reporterUid, IssueStatus status)
+            throws ExecutionException, InterruptedException {
+        Query query = FirestoreClient.getFirestore().collection(COLLECTION_NAME)
+            .whereEqualTo("reporterUid", reporterUid)
+            .whereEqualTo("status", status);
+        return count("reporter:" + reporterUid + ":status:" + status, query);
+    }
+
+    /**
+     * Drops all memoized counts. Called after issues are created, deleted or change status.
+     */
+    public void invalidate() {
+        cache.clear();
+    }
+
+    private static class CachedCount {
+        private final long value;
+        private final long expiresAt;
+
+        CachedCount(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
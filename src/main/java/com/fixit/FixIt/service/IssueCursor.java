@@ -0,0 +1,122 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.model.IssueSortOrder;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Opaque continuation token for keyset pagination of issues.
+ *
+ * The token carries the sort key and document ID of the last issue on the
+ * previous page, plus a fingerprint of the filters it was issued for so a
+ * token cannot be replayed against a different query.
+ */
+public final class IssueCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final IssueSortOrder sortOrder;
+    private final long sortValue;
+    private final String documentId;
+    private final String fingerprint;
+
+    private IssueCursor(IssueSortOrder sortOrder, long sortValue, String documentId, String fingerprint) {
+        this.sortOrder = sortOrder;
+        this.sortValue = sortValue;
+        this.documentId = documentId;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Builds the cursor pointing just past the given issue.
+     */
+    public static IssueCursor after(Issue issue, IssueSortOrder sortOrder, String fingerprint) {
+        return new IssueCursor(sortOrder, sortKeyOf(issue, sortOrder), issue.getId(), fingerprint);
+    }
+
+    public static IssueCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new IssueCursor(IssueSortOrder.valueOf(parts[0]), Long.parseLong(parts[1]), parts[2], parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = sortOrder.name() + SEPARATOR + sortValue + SEPARATOR + documentId + SEPARATOR + fingerprint;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Rejects tokens that were issued for a different sort mode or filter set.
+     */
+    public void verify(IssueSortOrder expectedSortOrder, String expectedFingerprint) {
+        if (sortOrder != expectedSortOrder || !fingerprint.equals(expectedFingerprint)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Cursor does not match the current filters or sort order");
+        }
+    }
+
+    /**
+     * Value to pass to startAfter for the sort field, in the type Firestore stores.
+     */
+    public Object getSortValue() {
+        if ("upvotes".equals(sortOrder.getField())) {
+            return sortValue;
+        }
+        return new Date(sortValue);
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    /**
+     * Issue carrying only the cursor's sort key and ID, for positioning
+     * within results that are ordered in memory.
+     */
+    public Issue toProbe() {
+        Issue probe = new Issue();
+        probe.setId(documentId);
+        switch (sortOrder.getField()) {
+            case "upvotes":
+                probe.setUpvotes((int) sortValue);
+                break;
+            case "updatedAt":
+                probe.setUpdatedAt(new Date(sortValue));
+                break;
+            case "createdAt":
+            default:
+                probe.setCreatedAt(new Date(sortValue));
+                break;
+        }
+        return probe;
+    }
+
+    public static String fingerprint(Object... filters) {
+        return Integer.toHexString(Objects.hash(filters));
+    }
+
+    private static long sortKeyOf(Issue issue, IssueSortOrder sortOrder) {
+        switch (sortOrder.getField()) {
+            case "upvotes":
+                return issue.getUpvotes() != null ? issue.getUpvotes() : 0;
+            case "updatedAt":
+                return issue.getUpdatedAt() != null ? issue.getUpdatedAt().getTime() : 0;
+            case "createdAt":
+            default:
+                return issue.getCreatedAt() != null ? issue.getCreatedAt().getTime() : 0;
+        }
+    }
+}
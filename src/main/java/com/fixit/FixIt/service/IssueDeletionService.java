@@ -0,0 +1,211 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.model.IssueDeletionJob;
+import com.fixit.FixIt.repository.ImageRepository;
+import com.fixit.FixIt.repository.IssueTombstoneRepository;
+import com.fixit.FixIt.repository.StatusChangeLogRepository;
+import com.fixit.FixIt.repository.UserUpvoteRepository;
+import com.fixit.FixIt.util.AppConstants;
+import com.fixit.FixIt.util.ImageUrlUtil;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Deletes issues and, in the background, everything that belongs to them.
+ *
+ * The issue document is deleted together with a tombstone job
+ * (issueDeletionJobs/{issueId}) and a deletion record for other instances'
+ * indexes in one batch, so the issue disappears from every read path at once. The job then removes the issue's upvotes, upvote
+ * shards and status change logs and releases its stored images, one phase at a
+ * time, checkpointing after each phase. Every phase is idempotent, so a job
+ * interrupted by a crash is simply picked up again by the periodic sweep
+ * and resumed from its last completed phase.
+ */
+@Service
+public class IssueDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssueDeletionService.class);
+    private static final String COLLECTION_NAME = AppConstants.ISSUE_DELETION_JOBS_COLLECTION;
+    private static final int MAX_JOBS_PER_SWEEP = 20;
+
+    private final UserUpvoteRepository userUpvoteRepository;
+    private final StatusChangeLogRepository statusChangeLogRepository;
+    private final UpvoteCounterService upvoteCounterService;
+    private final ImageRepository imageRepository;
+    private final ImageETagCache imageETagCache;
+    private final ImageByteCache imageByteCache;
+    private final IssueTombstoneRepository issueTombstoneRepository;
+    private final long leaseMillis;
+
+    public IssueDeletionService(
+            UserUpvoteRepository userUpvoteRepository,
+            StatusChangeLogRepository statusChangeLogRepository,
+            UpvoteCounterService upvoteCounterService,
+            ImageRepository imageRepository,
+            ImageETagCache imageETagCache,
+            ImageByteCache imageByteCache,
+            IssueTombstoneRepository issueTombstoneRepository,
+            @Value("${issues.deletion.lease-seconds:300}") long leaseSeconds) {
+        this.userUpvoteRepository = userUpvoteRepository;
+        this.statusChangeLogRepository = statusChangeLogRepository;
+        this.upvoteCounterService = upvoteCounterService;
+        this.imageRepository = imageRepository;
+        this.imageETagCache = imageETagCache;
+        this.imageByteCache = imageByteCache;
+        this.issueTombstoneRepository = issueTombstoneRepository;
+        this.leaseMillis = leaseSeconds * 1000;
+    }
+
+    /**
+     * Deletes the issue and records its tombstone, then starts the cleanup
+     * without waiting for it. Fails with FAILED_PRECONDITION if the issue
+     * changed after the snapshot was read.
+     */
+    public void deleteIssue(DocumentSnapshot issueDoc) throws ExecutionException, InterruptedException {
+        Firestore firestore = FirestoreClient.getFirestore();
+        Issue issue = issueDoc.toObject(Issue.class);
+        String issueId = issueDoc.getId();
+        IssueDeletionJob job = new IssueDeletionJob(issueId, issue.getReporterUid(), ImageUrlUtil.imageIds(issue.getImageUrls()));
+
+        WriteBatch batch = firestore.batch();
+        batch.delete(issueDoc.getReference(), Precondition.updatedAt(issueDoc.getUpdateTime()));
+        batch.set(jobReference(issueId), job);
+        issueTombstoneRepository.stageDeleted(batch, issueId, job.getCreatedAt());
+        batch.commit().get();
+
+        CompletableFuture.runAsync(() -> process(issueId));
+    }
+
+    /**
+     * Resumes jobs left unfinished by a failure or by a crashed instance.
+     */
+    @Scheduled(fixedDelayString = "${issues.deletion.sweep-interval-ms:60000}")
+    public void resumePending() {
+        try {
+            List<QueryDocumentSnapshot> jobs = FirestoreClient.getFirestore().collection(COLLECTION_NAME)
+                .orderBy("createdAt")
+                .limit(MAX_JOBS_PER_SWEEP)
+                .get().get().getDocuments();
+            for (QueryDocumentSnapshot job : jobs) {
+                process(job.getId());
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to list pending issue deletions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the remaining cleanup phases of a job, if no other instance holds it.
+     */
+    public void process(String issueId) {
+        DocumentReference jobRef = jobReference(issueId);
+        IssueDeletionJob job = claim(jobRef);
+        if (job == null) {
+            return;
+        }
+
+        try {
+            IssueDeletionJob.Phase[] phases = IssueDeletionJob.Phase.values();
+            for (int i = job.getPhase().ordinal(); i < phases.length; i++) {
+                runPhase(job, phases[i]);
+                if (i + 1 < phases.length) {
+                    Date now = new Date();
+                    jobRef.update("phase", phases[i + 1], "updatedAt", now,
+                        "leaseUntil", new Date(now.getTime() + leaseMillis)).get();
+                }
+            }
+            jobRef.delete().get();
+            logger.info("Finished cleanup for deleted issue: {}", issueId);
+        } catch (Exception e) {
+            logger.warn("Cleanup for deleted issue {} failed, will retry: {}", issueId, e.getMessage());
+            try {
+                // Release the lease so the next sweep retries straight away
+                jobRef.update("lastError", String.valueOf(e.getMessage()), "leaseUntil", null,
+                    "updatedAt", new Date()).get();
+            } catch (Exception updateError) {
+                logger.warn("Failed to record cleanup error for issue {}: {}", issueId, updateError.getMessage());
+            }
+        }
+    }
+
+    private void runPhase(IssueDeletionJob job, IssueDeletionJob.Phase phase) throws Exception {
+        String issueId = job.getIssueId();
+        switch (phase) {
+            case UPVOTES:
+                long upvotes = userUpvoteRepository.deleteByIssueId(issueId);
+                logger.debug("Deleted {} upvotes for issue {}", upvotes, issueId);
+                break;
+            case UPVOTE_SHARDS:
+                upvoteCounterService.deleteShards(issueId);
+                break;
+            case STATUS_LOGS:
+                int logs = statusChangeLogRepository.deleteByIssueId(issueId);
+                logger.debug("Deleted {} status change logs for issue {}", logs, issueId);
+                break;
+            case IMAGES:
+                releaseImages(issueId, job.getImageIds());
+                break;
+        }
+    }
+
+    private void releaseImages(String issueId, List<String> imageIds) {
+        if (imageIds == null) {
+            return;
+        }
+        // Each release is idempotent, so a retried phase simply repeats the list
+        for (String imageId : imageIds) {
+            if (imageRepository.releaseReference(imageId, issueId)) {
+                imageETagCache.evict(imageId);
+                imageByteCache.evict(imageId);
+            }
+        }
+    }
+
+    /**
+     * Takes the job's lease in a transaction.
+     *
+     * @return The job, or null if it no longer exists or another instance holds it
+     */
+    private IssueDeletionJob claim(DocumentReference jobRef) {
+        try {
+            return FirestoreClient.getFirestore().runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(jobRef).get();
+                if (!snapshot.exists()) {
+                    return null;
+                }
+                IssueDeletionJob job = snapshot.toObject(IssueDeletionJob.class);
+                Date now = new Date();
+                if (job.getLeaseUntil() != null && job.getLeaseUntil().after(now)) {
+                    return null;
+                }
+                transaction.update(jobRef, "leaseUntil", new Date(now.getTime() + leaseMillis),
+                    "attempts", FieldValue.increment(1), "updatedAt", now);
+                return job;
+            }).get();
+        } catch (Exception e) {
+            logger.warn("Failed to claim deletion job {}: {}", jobRef.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private DocumentReference jobReference(String issueId) {
+        return FirestoreClient.getFirestore().collection(COLLECTION_NAME).document(issueId);
+    }
+}
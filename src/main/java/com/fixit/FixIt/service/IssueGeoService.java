@@ -0,0 +1,273 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.dto.GeoQueryResult;
+import com.fixit.FixIt.dto.IssueCluster;
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.model.IssueStatus;
+import com.fixit.FixIt.util.GeoHashUtil;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Location-based issue lookups served from the geohash stored on each issue.
+ *
+ * A bounding box is covered by a handful of geohash cells; each cell becomes a
+ * prefix range scan on the "geohash" field, the scans run in parallel and the
+ * results are trimmed to the exact box or circle in memory. A scan that fills
+ * its limit is repeated on the cell's children that intersect the box, so
+ * dense areas are read completely; only when the scan budget runs out is the
+ * result marked truncated.
+ */
+@Service
+public class IssueGeoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssueGeoService.class);
+    private static final String COLLECTION_NAME = "issues";
+    private static final int MAX_CELLS = 16;
+    private static final int MAX_RESULTS = 500;
+    // Documents read per cell scan, and in total per query
+    private static final int CELL_SCAN_LIMIT = 500;
+    private static final int MAX_SCANNED_DOCUMENTS = 10000;
+    private static final double MAX_RADIUS_KM = 50.0;
+    private static final int BACKFILL_BATCH_SIZE = 400;
+
+    private final IssueClusterIndex clusterIndex;
+    private final boolean backfillOnStartup;
+
+    public IssueGeoService(
+            IssueClusterIndex clusterIndex,
+            @Value("${issues.geohash.backfill-on-startup:false}") boolean backfillOnStartup) {
+        this.clusterIndex = clusterIndex;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    /**
+     * Issues within a radius of a point, nearest first.
+     * @param latitude Centre latitude
+     * @param longitude Centre longitude
+     * @param radiusKm Radius in kilometres (up to 50)
+     * @param status Optional status filter
+     * @param limit Maximum number of issues to return
+     * @return Issues ordered by distance from the centre
+     */
+    public GeoQueryResult findNearby(double latitude, double longitude, double radiusKm, String status, int limit) {
+        validateCoordinates(latitude, longitude);
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Radius must be greater than 0 and at most " + MAX_RADIUS_KM + " km");
+        }
+
+        double[] box = GeoHashUtil.boundingBox(latitude, longitude, radiusKm);
+        GeoQueryResult result = queryBox(box[0], box[1], box[2], box[3], status);
+        List<Issue> issues = result.getIssues();
+        issues.removeIf(issue ->
+            GeoHashUtil.distanceKm(latitude, longitude, issue.getLatitude(), issue.getLongitude()) > radiusKm);
+        issues.sort(Comparator.comparingDouble(issue ->
+            GeoHashUtil.distanceKm(latitude, longitude, issue.getLatitude(), issue.getLongitude())));
+        return new GeoQueryResult(truncate(issues, limit), result.isTruncated());
+    }
+
+    /**
+     * Issues inside a bounding box, newest first.
+     */
+    public GeoQueryResult findWithinBounds(double minLat, double minLng, double maxLat, double maxLng,
+                                        String status, int limit) {
+        validateCoordinates(minLat, minLng);
+        validateCoordinates(maxLat, maxLng);
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Bounding box minimums must not exceed maximums");
+        }
+
+        GeoQueryResult result = queryBox(minLat, minLng, maxLat, maxLng, status);
+        List<Issue> issues = result.getIssues();
+        issues.sort(Comparator.comparing(Issue::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return new GeoQueryResult(truncate(issues, limit), result.isTruncated());
+    }
+
+    /**
+     * Pre-aggregated clusters for a map viewport at the given zoom level.
+     */
+    public List<IssueCluster> getClusters(double minLat, double minLng, double maxLat, double maxLng,
+                                          int zoom, String status) {
+        if (!clusterIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Issue clusters are still being built, please retry shortly");
+        }
+        return clusterIndex.clusters(minLat, minLng, maxLat, maxLng, zoom, status);
+    }
+
+    GeoQueryResult queryBox(double minLat, double minLng, double maxLat, double maxLng, String status) {
+        try {
+            IssueStatus issueStatus = parseStatus(status);
+            Deque<String> pending = new ArrayDeque<>(
+                GeoHashUtil.coveringCells(minLat, minLng, maxLat, maxLng, MAX_CELLS));
+            Firestore firestore = FirestoreClient.getFirestore();
+
+            Map<String, Issue> issues = new LinkedHashMap<>();
+            int scannedCells = 0;
+            int scannedDocuments = 0;
+            boolean truncated = false;
+            while (!pending.isEmpty()) {
+                if (scannedDocuments >= MAX_SCANNED_DOCUMENTS) {
+                    truncated = true;
+                    break;
+                }
+
+                // One prefix scan per cell, up to MAX_CELLS issued concurrently
+                List<String> cells = new ArrayList<>();
+                List<ApiFuture<QuerySnapshot>> futures = new ArrayList<>();
+                while (!pending.isEmpty() && cells.size() < MAX_CELLS) {
+                    String cell = pending.poll();
+                    Query query = firestore.collection(COLLECTION_NAME);
+                    if (issueStatus != null) {
+                        query = query.whereEqualTo("status", issueStatus);
+                    }
+                    cells.add(cell);
+                    futures.add(query.orderBy("geohash")
+                        .startAt(cell)
+                        .endAt(cell + "\uf8ff")
+                        .limit(CELL_SCAN_LIMIT)
+                        .get());
+                }
+
+                for (int i = 0; i < cells.size(); i++) {
+                    List<QueryDocumentSnapshot> documents = futures.get(i).get().getDocuments();
+                    scannedDocuments += documents.size();
+                    for (QueryDocumentSnapshot document : documents) {
+                        Issue issue = document.toObject(Issue.class);
+                        issue.setId(document.getId());
+                        if (issue.getLatitude() != null && issue.getLongitude() != null
+                                && issue.getLatitude() >= minLat && issue.getLatitude() <= maxLat
+                                && issue.getLongitude() >= minLng && issue.getLongitude() <= maxLng) {
+                            issues.put(document.getId(), issue);
+                        }
+                    }
+                    if (documents.size() < CELL_SCAN_LIMIT) {
+                        continue;
+                    }
+                    // The cell holds more issues than one scan reads: rescan its children
+                    String cell = cells.get(i);
+                    if (cell.length() < GeoHashUtil.MAX_PRECISION) {
+                        pending.addAll(GeoHashUtil.subdivide(cell, minLat, minLng, maxLat, maxLng));
+                    } else {
+                        truncated = true;
+                    }
+                }
+                scannedCells += cells.size();
+            }
+
+            if (truncated) {
+                logger.warn("Geo query stopped after {} cells and {} documents; result is incomplete",
+                    scannedCells, scannedDocuments);
+            }
+            logger.debug("Geo query over {} cells matched {} issues", scannedCells, issues.size());
+            return new GeoQueryResult(new ArrayList<>(issues.values()), truncated);
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error running geo query: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "Failed to fetch nearby issues: " + e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            CompletableFuture.runAsync(this::backfillGeohashes);
+        }
+    }
+
+    /**
+     * Writes the geohash field on issues created before it existed.
+     * Enabled with issues.geohash.backfill-on-startup=true.
+     */
+    public void backfillGeohashes() {
+        try {
+            Firestore firestore = FirestoreClient.getFirestore();
+            Query query = firestore.collection(COLLECTION_NAME)
+                .select("latitude", "longitude", "geohash")
+                .orderBy(FieldPath.documentId())
+                .limit(BACKFILL_BATCH_SIZE);
+
+            int updated = 0;
+            DocumentSnapshot lastDocument = null;
+            while (true) {
+                Query batchQuery = lastDocument == null ? query : query.startAfter(lastDocument);
+                List<QueryDocumentSnapshot> documents = batchQuery.get().get().getDocuments();
+
+                WriteBatch batch = firestore.batch();
+                int pending = 0;
+                for (QueryDocumentSnapshot document : documents) {
+                    Double latitude = document.getDouble("latitude");
+                    Double longitude = document.getDouble("longitude");
+                    if (document.getString("geohash") == null && latitude != null && longitude != null) {
+                        batch.update(document.getReference(), "geohash",
+                            GeoHashUtil.encode(latitude, longitude, GeoHashUtil.MAX_PRECISION));
+                        pending++;
+                    }
+                }
+                if (pending > 0) {
+                    batch.commit().get();
+                    updated += pending;
+                }
+
+                if (documents.size() < BACKFILL_BATCH_SIZE) {
+                    break;
+                }
+                lastDocument = documents.get(documents.size() - 1);
+            }
+            logger.info("Geohash backfill complete, {} issues updated", updated);
+        } catch (Exception e) {
+            logger.error("Geohash backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private IssueStatus parseStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
+        }
+        try {
+            return IssueStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status value");
+        }
+    }
+
+    private void validateCoordinates(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+    }
+
+    private List<Issue> truncate(List<Issue> issues, int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_RESULTS));
+        return issues.size() > max ? new ArrayList<>(issues.subList(0, max)) : issues;
+    }
+}
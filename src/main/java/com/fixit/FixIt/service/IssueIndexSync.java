@@ -0,0 +1,114 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.repository.IssueTombstoneRepository;
+import com.fixit.FixIt.util.AppConstants;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Keeps the local search index and cluster grid current with issue writes
+ * made by other instances.
+ *
+ * Every poll reads the issues whose updatedAt is at or after the previous
+ * poll, and the tombstones of issues deleted since then. Each poll reaches
+ * back by an extra overlap window (issues.index-sync.overlap-ms), so writes
+ * stamped by a slightly slow clock or committed late are still picked up;
+ * re-indexing an unchanged issue is harmless. Tombstones older than the
+ * retention period are purged.
+ */
+@Component
+public class IssueIndexSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssueIndexSync.class);
+    private static final String COLLECTION_NAME = AppConstants.ISSUES_COLLECTION;
+    private static final int BATCH_SIZE = 500;
+
+    private final IssueSearchIndex searchIndex;
+    private final IssueClusterIndex clusterIndex;
+    private final IssueTombstoneRepository issueTombstoneRepository;
+    private final long overlapMillis;
+    private final long retentionMillis;
+    // Start of the last successful poll; the bootstraps cover everything before startup
+    private volatile long lastSync = System.currentTimeMillis();
+
+    public IssueIndexSync(
+            IssueSearchIndex searchIndex,
+            IssueClusterIndex clusterIndex,
+            IssueTombstoneRepository issueTombstoneRepository,
+            @Value("${issues.index-sync.overlap-ms:60000}") long overlapMillis,
+            @Value("${issues.index-sync.tombstone-retention-hours:24}") long retentionHours) {
+        this.searchIndex = searchIndex;
+        this.clusterIndex = clusterIndex;
+        this.issueTombstoneRepository = issueTombstoneRepository;
+        this.overlapMillis = overlapMillis;
+        this.retentionMillis = retentionHours * 60 * 60 * 1000;
+    }
+
+    @Scheduled(fixedDelayString = "${issues.index-sync.interval-ms:15000}",
+        initialDelayString = "${issues.index-sync.interval-ms:15000}")
+    public void poll() {
+        long started = System.currentTimeMillis();
+        Date since = new Date(lastSync - overlapMillis);
+        try {
+            // Updates first, so a deletion read in the same poll wins over a stale copy
+            int updated = applyUpdates(since);
+            List<String> deleted = issueTombstoneRepository.findIssueIdsDeletedSince(since);
+            for (String issueId : deleted) {
+                searchIndex.remove(issueId);
+                clusterIndex.remove(issueId);
+            }
+            lastSync = started;
+            logger.debug("Issue index sync applied {} updates and {} deletions", updated, deleted.size());
+        } catch (Exception e) {
+            logger.warn("Issue index sync failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${issues.index-sync.purge-interval-ms:3600000}")
+    public void purgeTombstones() {
+        try {
+            long purged = issueTombstoneRepository.purgeBefore(new Date(System.currentTimeMillis() - retentionMillis));
+            if (purged > 0) {
+                logger.info("Purged {} issue tombstones", purged);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to purge issue tombstones: {}", e.getMessage());
+        }
+    }
+
+    private int applyUpdates(Date since) throws Exception {
+        Query query = FirestoreClient.getFirestore().collection(COLLECTION_NAME)
+            .whereGreaterThanOrEqualTo("updatedAt", since)
+            .orderBy("updatedAt")
+            .limit(BATCH_SIZE);
+
+        int updated = 0;
+        DocumentSnapshot lastDocument = null;
+        while (true) {
+            Query batch = lastDocument == null ? query : query.startAfter(lastDocument);
+            List<QueryDocumentSnapshot> documents = batch.get().get().getDocuments();
+            for (QueryDocumentSnapshot document : documents) {
+                Issue issue = document.toObject(Issue.class);
+                issue.setId(document.getId());
+                searchIndex.indexIfNewer(issue);
+                clusterIndex.indexIfNewer(issue);
+            }
+            updated += documents.size();
+            if (documents.size() < BATCH_SIZE) {
+                return updated;
+            }
+            lastDocument = documents.get(documents.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.model.IssueSortOrder;
+import com.fixit.FixIt.model.IssueStatus;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Turns the issue listing filters and sort mode into a Firestore query.
+ *
+ * Equality filters (status, location, reporter) are always pushed down. Firestore
+ * only allows a range filter on the field the query is ordered by, so the
+ * minUpvotes and date range filters are pushed down when they match the sort
+ * field and are otherwise kept as residual predicates that the caller applies
+ * while scanning the ordered results.
+ */
+@Component
+public class IssueQueryPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssueQueryPlanner.class);
+    private static final String COLLECTION_NAME = "issues";
+    private static final String DATE_FORMAT = "yyyy-MM-dd";
+
+    public Plan plan(
+            String status,
+            String location,
+            String reporterUid,
+            Integer minUpvotes,
+            String startDate,
+            String endDate,
+            String sort) {
+        Firestore firestore = FirestoreClient.getFirestore();
+        return plan(firestore.collection(COLLECTION_NAME), status, location, reporterUid,
+            minUpvotes, startDate, endDate, sort);
+    }
+
+    // Plans on top of the given base query, so tests can supply their own
+    Plan plan(
+            Query query,
+            String status,
+            String location,
+            String reporterUid,
+            Integer minUpvotes,
+            String startDate,
+            String endDate,
+            String sort) {
+        IssueSortOrder sortOrder = IssueSortOrder.fromParam(sort);
+        List<String> equalityFields = new ArrayList<>();
+        List<Predicate<Issue>> residualFilters = new ArrayList<>();
+        List<Predicate<Issue>> allFilters = new ArrayList<>();
+
+        // Equality filters can always be served by a composite index
+        if (status != null && !status.isEmpty()) {
+            IssueStatus issueStatus;
+            try {
+                issueStatus = IssueStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid status value: {}", status);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status value");
+            }
+            query = query.whereEqualTo("status", issueStatus);
+            equalityFields.add("status");
+            allFilters.add(issue -> issue.getStatus() == issueStatus);
+        }
+
+        if (location != null && !location.isEmpty()) {
+            query = query.whereEqualTo("location", location);
+            equalityFields.add("location");
+            allFilters.add(issue -> location.equals(issue.getLocation()));
+        }
+
+        if (reporterUid != null && !reporterUid.isEmpty()) {
+            query = query.whereEqualTo("reporterUid", reporterUid);
+            equalityFields.add("reporterUid");
+            allFilters.add(issue -> reporterUid.equals(issue.getReporterUid()));
+        }
+
+        // Range filters are only pushed down on the sort field
+        if (minUpvotes != null && minUpvotes > 0) {
+            int min = minUpvotes;
+            Predicate<Issue> upvotesFilter = issue -> issue.getUpvotes() != null && issue.getUpvotes() >= min;
+            allFilters.add(upvotesFilter);
+            if ("upvotes".equals(sortOrder.getField())) {
+                query = query.whereGreaterThanOrEqualTo("upvotes", minUpvotes);
+            } else {
+                residualFilters.add(upvotesFilter);
+            }
+        }
+
+        Date start = parseStartDate(startDate);
+        Date end = parseEndDate(endDate);
+        if (start != null || end != null) {
+            Predicate<Issue> dateFilter = issue -> issue.getCreatedAt() != null
+                && (start == null || !issue.getCreatedAt().before(start))
+                && (end == null || issue.getCreatedAt().before(end));
+            allFilters.add(dateFilter);
+            if ("createdAt".equals(sortOrder.getField())) {
+                if (start != null) {
+                    query = query.whereGreaterThanOrEqualTo("createdAt", start);
+                }
+                if (end != null) {
+                    query = query.whereLessThan("createdAt", end);
+                }
+            } else {
+                residualFilters.add(dateFilter);
+            }
+        }
+
+        // Document ID tie-breaker keeps offsets stable when sort keys collide
+        query = query.orderBy(sortOrder.getField(), sortOrder.getDirection())
+            .orderBy(FieldPath.documentId(), sortOrder.getDirection());
+
+        // Counts do not depend on the sort order, only on the filters
+        String countKey = String.join("|", "list", String.valueOf(status), String.valueOf(location),
+            String.valueOf(reporterUid), String.valueOf(minUpvotes), String.valueOf(startDate), String.valueOf(endDate));
+
+        Plan plan = new Plan(query, sortOrder, equalityFields, residualFilters, allFilters, countKey);
+        logger.debug("Planned issue query - sort: {}, index: {}, residual filters: {}",
+            sortOrder, plan.describeIndex(), residualFilters.size());
+        return plan;
+    }
+
+    /**
+     * Lists every composite index the planner can ask for: each combination of
+     * equality filters followed by each sort field and direction. Kept in sync
+     * with firestore.indexes.json at the repository root.
+     */
+    public static List<String> requiredIndexes() {
+        String[] fields = {"status", "location", "reporterUid"};
+        List<String> indexes = new ArrayList<>();
+        for (int mask = 1; mask < (1 << fields.length); mask++) {
+            List<String> equalityFields = new ArrayList<>();
+            for (int i = 0; i < fields.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    equalityFields.add(fields[i]);
+                }
+            }
+            for (IssueSortOrder sortOrder : IssueSortOrder.values()) {
+                indexes.add(describeIndex(equalityFields, sortOrder));
+            }
+        }
+        return indexes;
+    }
+
+    private static String describeIndex(List<String> equalityFields, IssueSortOrder sortOrder) {
+        StringBuilder description = new StringBuilder(COLLECTION_NAME).append("(");
+        for (String field : equalityFields) {
+            description.append(field).append(" ASC, ");
+        }
+        description.append(sortOrder.getField())
+            .append(sortOrder.getDirection() == Query.Direction.DESCENDING ? " DESC" : " ASC")
+            .append(")");
+        return description.toString();
+    }
+
+    private Date parseStartDate(String startDate) {
+        if (startDate == null || startDate.isEmpty()) {
+            return null;
+        }
+        try {
+            return new SimpleDateFormat(DATE_FORMAT).parse(startDate);
+        } catch (ParseException e) {
+            logger.warn("Invalid start date format: {}", startDate);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Invalid start date format. Use yyyy-MM-dd");
+        }
+    }
+
+    private Date parseEndDate(String endDate) {
+        if (endDate == null || endDate.isEmpty()) {
+            return null;
+        }
+        try {
+            // Add one day to include the end date fully
+            Date end = new SimpleDateFormat(DATE_FORMAT).parse(endDate);
+            Calendar c = Calendar.getInstance();
+            c.setTime(end);
+            c.add(Calendar.DATE, 1);
+            return c.getTime();
+        } catch (ParseException e) {
+            logger.warn("Invalid end date format: {}", endDate);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Invalid end date format. Use yyyy-MM-dd");
+        }
+    }
+
+    /**
+     * Result of planning: the ordered Firestore query (without limit/offset)
+     * and any filters that could not be pushed down.
+     */
+    public static class Plan {
+        private final Query query;
+        private final IssueSortOrder sortOrder;
+        private final List<String> equalityFields;
+        private final List<Predicate<Issue>> residualFilters;
+        private final List<Predicate<Issue>> allFilters;
+        private final String countKey;
+
+        Plan(Query query, IssueSortOrder sortOrder, List<String> equalityFields,
+             List<Predicate<Issue>> residualFilters, List<Predicate<Issue>> allFilters, String countKey) {
+            this.query = query;
+            this.sortOrder = sortOrder;
+            this.equalityFields = Collections.unmodifiableList(equalityFields);
+            this.residualFilters = Collections.unmodifiableList(residualFilters);
+            this.allFilters = Collections.unmodifiableList(allFilters);
+            this.countKey = countKey;
+        }
+
+        public Query getQuery() {
+            return query;
+        }
+
+        public IssueSortOrder getSortOrder() {
+            return sortOrder;
+        }
+
+        public List<String> getEqualityFields() {
+            return equalityFields;
+        }
+
+        /**
+         * Key identifying the filter set, used to memoize counts across sort modes.
+         */
+        public String getCountKey() {
+            return countKey;
+        }
+
+        public boolean hasResidualFilters() {
+            return !residualFilters.isEmpty();
+        }
+
+        public boolean matchesResidualFilters(Issue issue) {
+            return matches(residualFilters, issue);
+        }
+
+        /**
+         * Evaluates every filter in memory, including the ones pushed down to
+         * Firestore. Used when issues come from the search index instead of a query.
+         */
+        public boolean matchesAllFilters(Issue issue) {
+            return matches(allFilters, issue);
+        }
+
+        private static boolean matches(List<Predicate<Issue>> filters, Issue issue) {
+            for (Predicate<Issue> filter : filters) {
+                if (!filter.test(issue)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Composite index the query needs, or "single-field" when the automatic
+         * single-field index on the sort field is enough.
+         */
+        public String describeIndex() {
+            if (equalityFields.isEmpty()) {
+                return "single-field";
+            }
+            return IssueQueryPlanner.describeIndex(equalityFields, sortOrder);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.Issue;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over issue title, description, location and reporter name.
+ *
+ * The index is built from Firestore once the application is ready and then kept
+ * current by the IssueService write paths and, for writes made by other
+ * instances, by IssueIndexSync. Besides the postings it holds a trimmed
+ * copy of each issue (the fields used for filtering and sorting), so a search can
+ * be filtered, ordered and paginated without touching Firestore; only the final
+ * page is fetched. The index is local to this instance.
+ */
+@Component
+public class IssueSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssueSearchIndex.class);
+    private static final String COLLECTION_NAME = "issues";
+    private static final int BOOTSTRAP_BATCH_SIZE = 500;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    // Field weights used for ranking
+    private static final int TITLE_WEIGHT = 4;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int REPORTER_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // term -> (issueId -> weight)
+    private final NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByIssue = new HashMap<>();
+    private final Map<String, Issue> issues = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        CompletableFuture.runAsync(this::rebuild);
+    }
+
+    /**
+     * Loads every issue into the index, reading only the indexed fields.
+     */
+    public void rebuild() {
+        try {
+            long started = System.currentTimeMillis();
+            Query query = FirestoreClient.getFirestore().collection(COLLECTION_NAME)
+                .select("title", "description", "location", "reporterName", "reporterUid",
+                    "status", "upvotes", "createdAt", "updatedAt", "latitude", "longitude")
+                .orderBy(FieldPath.documentId())
+                .limit(BOOTSTRAP_BATCH_SIZE);
+
+            int loaded = 0;
+            DocumentSnapshot lastDocument = null;
+            while (true) {
+                Query batch = lastDocument == null ? query : query.startAfter(lastDocument);
+                List<QueryDocumentSnapshot> documents = batch.get().get().getDocuments();
+                for (QueryDocumentSnapshot document : documents) {
+                    Issue issue = document.toObject(Issue.class);
+                    issue.setId(document.getId());
+                    indexIfNewer(issue);
+                }
+                loaded += documents.size();
+                if (documents.size() < BOOTSTRAP_BATCH_SIZE) {
+                    break;
+                }
+                lastDocument = documents.get(documents.size() - 1);
+            }
+
+            ready = true;
+            logger.info("Issue search index built with {} issues and {} terms in {} ms",
+                loaded, termCount(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Failed to build issue search index: {}", e.getMessage(), e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds or replaces an issue in the index.
+     */
+    public void index(Issue issue) {
+        if (issue == null || issue.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeTerms(issue.getId());
+            Map<String, Integer> weights = new HashMap<>();
+            addTerms(weights, issue.getTitle(), TITLE_WEIGHT);
+            addTerms(weights, issue.getLocation(), LOCATION_WEIGHT);
+            addTerms(weights, issue.getReporterName(), REPORTER_WEIGHT);
+            addTerms(weights, issue.getDescription(), DESCRIPTION_WEIGHT);
+
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>())
+                    .put(issue.getId(), entry.getValue());
+            }
+            termsByIssue.put(issue.getId(), weights.keySet());
+            issues.put(issue.getId(), trim(issue));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Trimmed copy of an indexed issue, or null if it is not in the index.
+     */
+    public Issue get(String issueId) {
+        lock.readLock().lock();
+        try {
+            Issue issue = issues.get(issueId);
+            return issue != null ? trim(issue) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(String issueId) {
+        lock.writeLock().lock();
+        try {
+            removeTerms(issueId);
+            issues.remove(issueId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds issues matching every token of the search text. The last token is
+     * matched as a prefix so partially typed words still hit; earlier tokens
+     * also match as prefixes but score higher on an exact term.
+     *
+     * @param text Free-text search input
+     * @return Hits in descending score order, each with a trimmed copy of the issue
+     */
+    public List<Hit> search(String text) {
+        List<String> tokens = tokenize(text);
+        List<Hit> hits = new ArrayList<>();
+        if (tokens.isEmpty()) {
+            return hits;
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = null;
+            for (String token : tokens) {
+                Map<String, Double> tokenScores = new HashMap<>();
+                for (Map.Entry<String, Map<String, Integer>> term
+                        : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                    double boost = term.getKey().equals(token) ? 2.0 : 1.0;
+                    for (Map.Entry<String, Integer> posting : term.getValue().entrySet()) {
+                        tokenScores.merge(posting.getKey(), posting.getValue() * boost, Math::max);
+                    }
+                }
+
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Every token has to match
+                    Map<String, Double> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<String, Double> entry : tokenScores.entrySet()) {
+                        Double score = previous.get(entry.getKey());
+                        if (score != null) {
+                            scores.put(entry.getKey(), score + entry.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return hits;
+                }
+            }
+
+            for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                Issue issue = issues.get(entry.getKey());
+                if (issue != null) {
+                    hits.add(new Hit(issue, entry.getValue()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        return hits;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Indexes an issue read from Firestore, unless a newer version of it is
+     * already indexed.
+     */
+    public void indexIfNewer(Issue issue) {
+        // One write-lock hold, so no newer version can be indexed between the check and the update
+        lock.writeLock().lock();
+        try {
+            Issue existing = issues.get(issue.getId());
+            // A write path may have indexed a newer version while the bootstrap was running
+            if (existing != null && existing.getUpdatedAt() != null && issue.getUpdatedAt() != null
+                    && existing.getUpdatedAt().after(issue.getUpdatedAt())) {
+                return;
+            }
+            index(issue);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void removeTerms(String issueId) {
+        Set<String> terms = termsByIssue.remove(issueId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<String, Integer> issueWeights = postings.get(term);
+            if (issueWeights != null) {
+                issueWeights.remove(issueId);
+                if (issueWeights.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy of the fields needed to filter and sort search results.
+     */
+    private Issue trim(Issue issue) {
+        Issue trimmed = new Issue();
+        trimmed.setId(issue.getId());
+        trimmed.setLocation(issue.getLocation());
+        trimmed.setReporterUid(issue.getReporterUid());
+        trimmed.setStatus(issue.getStatus());
+        trimmed.setUpvotes(issue.getUpvotes());
+        trimmed.setCreatedAt(issue.getCreatedAt());
+        trimmed.setUpdatedAt(issue.getUpdatedAt());
+        trimmed.setImageUrls(null);
+        trimmed.setStatusChangeLogs(null);
+        return trimmed;
+    }
+
+    public static class Hit {
+        private final Issue issue;
+        private final double score;
+
+        Hit(Issue issue, double score) {
+            this.issue = issue;
+            this.score = score;
+        }
+
+        public Issue getIssue() {
+            return issue;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -5,8 +5,15 @@ import com.fixit.FixIt.dto.PaginatedResponse;
 import com.fixit.FixIt.model.Issue;
 import com.fixit.FixIt.model.IssueStatus;
 import com.fixit.FixIt.model.UserUpvote;
+import com.fixit.FixIt.repository.AnalyticsRollupRepository;
+import com.fixit.FixIt.repository.ImageRepository;
 import com.fixit.FixIt.repository.UserUpvoteRepository;
+import com.fixit.FixIt.util.AppConstants;
+import com.fixit.FixIt.util.GeoHashUtil;
+import com.fixit.FixIt.util.ImageUrlUtil;
 import com.google.api.core.ApiFuture;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
 import com.google.cloud.firestore.*;
 import com.google.firebase.cloud.FirestoreClient;
 import org.slf4j.Logger;
@@ -15,8 +22,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
@@ -26,10 +31,44 @@ public class IssueService {
     
     private static final Logger logger = LoggerFactory.getLogger(IssueService.class);
     private static final String COLLECTION_NAME = "issues";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int SCAN_BATCH_SIZE = 200;
+    // Scans for residual filters read at most this many documents per requested result
+    private static final int SCAN_DOCUMENTS_PER_RESULT = 20;
+    private static final int MAX_SCANNED_DOCUMENTS = 5000;
+    private static final int MAX_MUTATION_ATTEMPTS = 3;
     private final UserUpvoteRepository userUpvoteRepository;
+    private final IssueQueryPlanner queryPlanner;
+    private final IssueCountService issueCountService;
+    private final IssueSearchIndex searchIndex;
+    private final IssueClusterIndex clusterIndex;
+    private final UpvoteCounterService upvoteCounterService;
+    private final UpvoteWriteBehindBuffer upvoteBuffer;
+    private final AnalyticsRollupRepository analyticsRollupRepository;
+    private final IssueDeletionService issueDeletionService;
+    private final ImageRepository imageRepository;
     
-    public IssueService(UserUpvoteRepository userUpvoteRepository) {
+    public IssueService(
+            UserUpvoteRepository userUpvoteRepository, 
+            IssueQueryPlanner queryPlanner, 
+            IssueCountService issueCountService,
+            IssueSearchIndex searchIndex,
+            IssueClusterIndex clusterIndex,
+            UpvoteCounterService upvoteCounterService,
+            UpvoteWriteBehindBuffer upvoteBuffer,
+            AnalyticsRollupRepository analyticsRollupRepository,
+            IssueDeletionService issueDeletionService,
+            ImageRepository imageRepository) {
         this.userUpvoteRepository = userUpvoteRepository;
+        this.queryPlanner = queryPlanner;
+        this.issueCountService = issueCountService;
+        this.searchIndex = searchIndex;
+        this.clusterIndex = clusterIndex;
+        this.upvoteCounterService = upvoteCounterService;
+        this.upvoteBuffer = upvoteBuffer;
+        this.analyticsRollupRepository = analyticsRollupRepository;
+        this.issueDeletionService = issueDeletionService;
+        this.imageRepository = imageRepository;
     }
     
     public Issue createIssue(CreateIssueRequest request) {
@@ -44,6 +83,7 @@ public class IssueService {
             issue.setLocation(request.getLocation());
             issue.setLatitude(request.getLatitude());
             issue.setLongitude(request.getLongitude());
+            issue.setGeohash(computeGeohash(request.getLatitude(), request.getLongitude()));
             issue.setReporterUid(request.getReporterUid());
             issue.setReporterName(request.getReporterName());
             
@@ -55,11 +95,22 @@ public class IssueService {
             DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
             issue.setId(docRef.getId());
             
-            // Set the data
-            ApiFuture<WriteResult> result = docRef.set(issue);
-            
-            // Wait for operation to complete
-            result.get();
+            // Write the issue, its image references and the day's analytics rollup together
+            WriteBatch batch = firestore.batch();
+            batch.set(docRef, issue);
+            imageRepository.stageAddReferences(batch, issue.getId(), ImageUrlUtil.imageIds(issue.getImageUrls()));
+            analyticsRollupRepository.stageIssueCreated(batch, issue);
+            try {
+                batch.commit().get();
+            } catch (ExecutionException e) {
+                if (hasStatus(e, StatusCode.Code.NOT_FOUND)) {
+                    throw imageNotFound();
+                }
+                throw e;
+            }
+            issueCountService.invalidate();
+            searchIndex.index(issue);
+            clusterIndex.index(issue);
             logger.info("Issue created successfully with ID: {}", issue.getId());
             
             return issue;
@@ -86,160 +137,49 @@ public class IssueService {
                     "searchTerm: {}, minUpvotes: {}, startDate: {}, endDate: {}, sort: {}, page: {}, size: {}", 
                     status, location, reporterUid, searchTerm, minUpvotes, startDate, endDate, sort, page, size);
             
-            logger.debug("Getting Firestore instance");
-            Firestore firestore = FirestoreClient.getFirestore();
-            logger.debug("Firestore instance obtained: {}", firestore != null ? "success" : "null");
-            
-            CollectionReference issuesCollection = firestore.collection(COLLECTION_NAME);
-            logger.debug("Collection reference obtained: {}", COLLECTION_NAME);
-            
-            // Create query
-            Query query = issuesCollection;
-            
-            // Apply status filter if provided
-            if (status != null && !status.isEmpty()) {
-                try {
-                    logger.debug("Applying status filter: {}", status);
-                    IssueStatus issueStatus = IssueStatus.valueOf(status.toUpperCase());
-                    query = query.whereEqualTo("status", issueStatus);
-                } catch (IllegalArgumentException e) {
-                    logger.warn("Invalid status value: {}", status);
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status value");
-                }
-            }
-            
-            // Apply location filter if provided
-            if (location != null && !location.isEmpty()) {
-                logger.debug("Applying location filter: {}", location);
-                query = query.whereEqualTo("location", location);
-            }
-            
-            // Apply reporter filter if provided
-            if (reporterUid != null && !reporterUid.isEmpty()) {
-                logger.debug("Applying reporter filter: {}", reporterUid);
-                query = query.whereEqualTo("reporterUid", reporterUid);
-            }
-            
-            // Apply minimum upvotes filter if provided
-            if (minUpvotes != null && minUpvotes > 0) {
-                logger.debug("Applying minimum upvotes filter: {}", minUpvotes);
-                query = query.whereGreaterThanOrEqualTo("upvotes", minUpvotes);
-            }
-            
-            // Apply date range filters if provided
-            if (startDate != null && !startDate.isEmpty()) {
-                try {
-                    Date start = new SimpleDateFormat("yyyy-MM-dd").parse(startDate);
-                    logger.debug("Applying start date filter: {}", start);
-                    query = query.whereGreaterThanOrEqualTo("createdAt", start);
-                } catch (ParseException e) {
-                    logger.warn("Invalid start date format: {}", startDate);
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
-                        "Invalid start date format. Use yyyy-MM-dd");
-                }
-            }
-            
-            if (endDate != null && !endDate.isEmpty()) {
-                try {
-                    // Add one day to include the end date fully
-                    Date end = new SimpleDateFormat("yyyy-MM-dd").parse(endDate);
-                    Calendar c = Calendar.getInstance();
-                    c.setTime(end);
-                    c.add(Calendar.DATE, 1);
-                    end = c.getTime();
-                    
-                    logger.debug("Applying end date filter: {}", end);
-                    query = query.whereLessThan("createdAt", end);
-                } catch (ParseException e) {
-                    logger.warn("Invalid end date format: {}", endDate);
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
-                        "Invalid end date format. Use yyyy-MM-dd");
-                }
+            if (page < 1 || size < 1 || size > MAX_PAGE_SIZE) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                    "Page must be at least 1 and size between 1 and " + MAX_PAGE_SIZE);
             }
             
-            // Get all matching documents for filtering by searchTerm and counting
-            List<Issue> filteredIssues = new ArrayList<>();
-            int totalItems = 0;
+            IssueQueryPlanner.Plan plan = queryPlanner.plan(
+                    status, location, reporterUid, minUpvotes, startDate, endDate, sort);
             
-            // Execute query to get all matching documents (limited to 1000 for performance)
-            logger.debug("Executing count query with limit 1000");
             try {
-                logger.debug("About to execute get() on query");
-                ApiFuture<QuerySnapshot> countFuture = query.limit(1000).get();
-                logger.debug("Query future obtained, waiting for result");
-                QuerySnapshot countSnapshot = countFuture.get();
-                logger.debug("Count query completed, found {} documents", countSnapshot.size());
-                
-                // Convert to list of issues
-                List<Issue> allMatchingIssues = countSnapshot.getDocuments().stream()
-                    .map(doc -> doc.toObject(Issue.class))
-                    .collect(Collectors.toList());
-                
-                // Always apply explicit sorting to ensure correct order
-                logger.info("Applying explicit sorting to results: {}", sort);
-                if ("newest".equals(sort)) {
-                    allMatchingIssues.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
-                } else if ("oldest".equals(sort)) {
-                    allMatchingIssues.sort((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()));
-                } else if ("most-upvoted".equals(sort)) {
-                    allMatchingIssues.sort((a, b) -> b.getUpvotes().compareTo(a.getUpvotes()));
-                } else if ("least-upvoted".equals(sort)) {
-                    allMatchingIssues.sort((a, b) -> a.getUpvotes().compareTo(b.getUpvotes()));
-                } else if ("recently-updated".equals(sort)) {
-                    allMatchingIssues.sort((a, b) -> b.getUpdatedAt().compareTo(a.getUpdatedAt()));
-                } else {
-                    // Default sorting by newest
-                    allMatchingIssues.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+                boolean hasSearchTerm = searchTerm != null && !searchTerm.isEmpty();
+                if (hasSearchTerm && searchIndex.isReady()) {
+                    return searchIssues(plan, searchTerm, sort, page, size);
                 }
-                
-                // Apply text search filter if provided (client-side filtering)
-                if (searchTerm != null && !searchTerm.isEmpty()) {
-                    logger.debug("Applying search term filter: {}", searchTerm);
-                    String searchLower = searchTerm.toLowerCase();
-                    filteredIssues = allMatchingIssues.stream()
-                        .filter(issue -> 
-                            (issue.getTitle() != null && issue.getTitle().toLowerCase().contains(searchLower)) ||
-                            (issue.getDescription() != null && issue.getDescription().toLowerCase().contains(searchLower)) ||
-                            (issue.getLocation() != null && issue.getLocation().toLowerCase().contains(searchLower)) ||
-                            (issue.getReporterName() != null && issue.getReporterName().toLowerCase().contains(searchLower))
-                        )
-                        .collect(Collectors.toList());
-                    
-                    // No need to re-sort here as we've already sorted allMatchingIssues
-                    totalItems = filteredIssues.size();
-                } else {
-                    filteredIssues = allMatchingIssues;
-                    totalItems = allMatchingIssues.size();
+                if (plan.hasResidualFilters() || hasSearchTerm) {
+                    return scanIssues(plan, searchTerm, page, size);
                 }
                 
-                // Apply pagination to the filtered results
-                int fromIndex = (page - 1) * size;
-                int toIndex = Math.min(fromIndex + size, filteredIssues.size());
+                // Everything is pushed down: count server-side and read only the requested page
+                int totalItems = (int) issueCountService.count(plan.getCountKey(), plan.getQuery());
                 
-                // Handle invalid page number
-                if (fromIndex >= filteredIssues.size()) {
-                    if (!filteredIssues.isEmpty()) {
-                        // If requesting a page beyond available data but there is data,
-                        // return the last page
-                        fromIndex = ((totalItems - 1) / size) * size;
-                        toIndex = totalItems;
-                    } else {
-                        // If no data, return empty list
-                        fromIndex = 0;
-                        toIndex = 0;
-                    }
+                // Requests past the end return the last page, as before
+                int effectivePage = page;
+                if ((page - 1) * size >= totalItems && totalItems > 0) {
+                    effectivePage = (totalItems - 1) / size + 1;
                 }
                 
-                List<Issue> paginatedIssues = (fromIndex < toIndex) 
-                    ? filteredIssues.subList(fromIndex, toIndex) 
-                    : new ArrayList<>();
+                List<Issue> paginatedIssues = plan.getQuery()
+                    .offset((effectivePage - 1) * size)
+                    .limit(size)
+                    .get()
+                    .get()
+                    .getDocuments()
+                    .stream()
+                    .map(doc -> doc.toObject(Issue.class))
+                    .collect(Collectors.toList());
                 
                 logger.info("Successfully fetched {} issues (page {}/{}, total items: {})", 
                         paginatedIssues.size(), page, (int) Math.ceil((double) totalItems / size), totalItems);
                 
                 return new PaginatedResponse<>(paginatedIssues, totalItems, page, size);
             } catch (ExecutionException e) {
-                logger.error("ExecutionException while fetching issues: {}", e.getMessage(), e);
+                logger.error("ExecutionException while fetching issues (index: {}): {}", 
+                        plan.describeIndex(), e.getMessage(), e);
                 if (e.getCause() != null) {
                     logger.error("Cause: {}", e.getCause().getMessage(), e.getCause());
                     if (e.getCause().getCause() != null) {
@@ -261,17 +201,316 @@ public class IssueService {
         }
     }
     
+    /**
+     * Keyset-paginated variant of {@link #getIssues}. Each page starts right after
+     * the issue encoded in the cursor, so fetching the next page costs the same
+     * regardless of how deep the client has scrolled, and issues created
+     * mid-scroll do not shift later pages.
+     *
+     * @param cursor Token from the previous page's nextCursor, or null/empty for the first page
+     * @return Page of issues with a nextCursor when more results exist
+     */
+    public PaginatedResponse<Issue> getIssuesByCursor(
+            String status, 
+            String location, 
+            String reporterUid, 
+            String searchTerm, 
+            Integer minUpvotes, 
+            String startDate, 
+            String endDate, 
+            String sort, 
+            String cursor, 
+            int size) {
+        try {
+            logger.info("Fetching issues by cursor - status: {}, location: {}, reporterUid: {}, " +
+                    "searchTerm: {}, minUpvotes: {}, startDate: {}, endDate: {}, sort: {}, size: {}", 
+                    status, location, reporterUid, searchTerm, minUpvotes, startDate, endDate, sort, size);
+            
+            if (size < 1 || size > MAX_PAGE_SIZE) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                    "Size must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            
+            IssueQueryPlanner.Plan plan = queryPlanner.plan(
+                    status, location, reporterUid, minUpvotes, startDate, endDate, sort);
+            String fingerprint = IssueCursor.fingerprint(
+                    status, location, reporterUid, searchTerm, minUpvotes, startDate, endDate);
+            
+            Query query = plan.getQuery();
+            if (cursor != null && !cursor.isEmpty()) {
+                IssueCursor position = IssueCursor.decode(cursor);
+                position.verify(plan.getSortOrder(), fingerprint);
+                DocumentReference lastRef = FirestoreClient.getFirestore()
+                    .collection(COLLECTION_NAME).document(position.getDocumentId());
+                query = query.startAfter(position.getSortValue(), lastRef);
+            }
+            
+            List<Issue> items = new ArrayList<>();
+            boolean hasMore;
+            String searchLower = searchTerm != null && !searchTerm.isEmpty() ? searchTerm.toLowerCase() : null;
+            
+            if (searchLower != null && searchIndex.isReady()) {
+                // Search hits are ordered in memory; the cursor marks where the last page ended
+                List<Issue> matches = searchMatches(plan, searchTerm);
+                matches.sort(plan.getSortOrder().comparator());
+                int from = 0;
+                if (cursor != null && !cursor.isEmpty()) {
+                    Issue probe = IssueCursor.decode(cursor).toProbe();
+                    Comparator<Issue> comparator = plan.getSortOrder().comparator();
+                    while (from < matches.size() && comparator.compare(matches.get(from), probe) <= 0) {
+                        from++;
+                    }
+                }
+                int to = Math.min(from + size, matches.size());
+                hasMore = to < matches.size();
+                items = fetchIssues(matches.subList(from, to));
+            } else if (!plan.hasResidualFilters() && searchLower == null) {
+                // One extra document tells us whether another page exists
+                List<QueryDocumentSnapshot> documents = query.limit(size + 1).get().get().getDocuments();
+                hasMore = documents.size() > size;
+                for (int i = 0; i < Math.min(size, documents.size()); i++) {
+                    items.add(documents.get(i).toObject(Issue.class));
+                }
+            } else {
+                hasMore = false;
+                int budget = scanBudget(1, size);
+                int scanned = 0;
+                DocumentSnapshot lastDocument = null;
+                // Last document read; a truncated page resumes right after it
+                Issue lastScanned = null;
+                boolean exhausted = false;
+                scan:
+                while (scanned < budget) {
+                    int batchSize = Math.min(SCAN_BATCH_SIZE, budget - scanned);
+                    Query batch = query.limit(batchSize);
+                    if (lastDocument != null) {
+                        batch = batch.startAfter(lastDocument);
+                    }
+                    List<QueryDocumentSnapshot> documents = batch.get().get().getDocuments();
+                    for (QueryDocumentSnapshot document : documents) {
+                        Issue issue = document.toObject(Issue.class);
+                        if (plan.matchesResidualFilters(issue) && matchesSearchTerm(issue, searchLower)) {
+                            if (items.size() == size) {
+                                hasMore = true;
+                                break scan;
+                            }
+                            items.add(issue);
+                        }
+                        lastScanned = issue;
+                        scanned++;
+                    }
+                    if (documents.size() < batchSize) {
+                        exhausted = true;
+                        break;
+                    }
+                    lastDocument = documents.get(documents.size() - 1);
+                }
+                if (!hasMore && !exhausted && lastScanned != null) {
+                    // Budget spent before the page filled: hand back a cursor past the scanned range
+                    String nextCursor = IssueCursor.after(lastScanned, plan.getSortOrder(), fingerprint).encode();
+                    PaginatedResponse<Issue> response = PaginatedResponse.ofCursor(items, nextCursor);
+                    response.setTruncated(true);
+                    logger.info("Fetched {} issues by cursor, scan stopped after {} documents", 
+                            items.size(), scanned);
+                    return response;
+                }
+            }
+            
+            String nextCursor = hasMore && !items.isEmpty()
+                ? IssueCursor.after(items.get(items.size() - 1), plan.getSortOrder(), fingerprint).encode()
+                : null;
+            
+            logger.info("Successfully fetched {} issues by cursor (hasMore: {})", items.size(), hasMore);
+            return PaginatedResponse.ofCursor(items, nextCursor);
+        } catch (ResponseStatusException e) {
+            logger.error("ResponseStatusException while fetching issues by cursor: {}", e.getReason(), e);
+            throw e;
+        } catch (Exception e) {
+            logger.error("Exception while fetching issues by cursor: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to fetch issues: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Serves a search from the in-memory index: filters, orders and paginates the
+     * hits locally and reads only the issues on the requested page.
+     */
+    private PaginatedResponse<Issue> searchIssues(
+            IssueQueryPlanner.Plan plan, String searchTerm, String sort, int page, int size)
+            throws InterruptedException, ExecutionException {
+        List<Issue> matches = searchMatches(plan, searchTerm);
+        if (!AppConstants.SORT_RELEVANCE.equals(sort)) {
+            matches.sort(plan.getSortOrder().comparator());
+        }
+        
+        int totalItems = matches.size();
+        int fromIndex = (page - 1) * size;
+        // Requests past the end return the last page, as before
+        if (fromIndex >= totalItems && totalItems > 0) {
+            fromIndex = ((totalItems - 1) / size) * size;
+        }
+        int toIndex = Math.min(fromIndex + size, totalItems);
+        
+        List<Issue> paginatedIssues = fromIndex < toIndex 
+            ? fetchIssues(matches.subList(fromIndex, toIndex)) 
+            : new ArrayList<>();
+        
+        logger.info("Successfully fetched {} issues from the search index (page {}/{}, total items: {})", 
+                paginatedIssues.size(), page, (int) Math.ceil((double) totalItems / size), totalItems);
+        
+        return new PaginatedResponse<>(paginatedIssues, totalItems, page, size);
+    }
+    
+    /**
+     * Search hits that pass every filter of the plan, in relevance order.
+     */
+    private List<Issue> searchMatches(IssueQueryPlanner.Plan plan, String searchTerm) {
+        List<Issue> matches = new ArrayList<>();
+        for (IssueSearchIndex.Hit hit : searchIndex.search(searchTerm)) {
+            if (plan.matchesAllFilters(hit.getIssue())) {
+                matches.add(hit.getIssue());
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * Reads full issues for index entries with a single batched get, keeping their order.
+     */
+    private List<Issue> fetchIssues(List<Issue> entries) throws InterruptedException, ExecutionException {
+        if (entries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Firestore firestore = FirestoreClient.getFirestore();
+        DocumentReference[] refs = entries.stream()
+            .map(entry -> firestore.collection(COLLECTION_NAME).document(entry.getId()))
+            .toArray(DocumentReference[]::new);
+        
+        Map<String, Issue> issuesById = new HashMap<>();
+        for (DocumentSnapshot snapshot : firestore.getAll(refs).get()) {
+            if (snapshot.exists()) {
+                issuesById.put(snapshot.getId(), snapshot.toObject(Issue.class));
+            } else {
+                // Deleted elsewhere; drop the stale entry
+                searchIndex.remove(snapshot.getId());
+                clusterIndex.remove(snapshot.getId());
+            }
+        }
+        
+        List<Issue> issues = new ArrayList<>();
+        for (Issue entry : entries) {
+            Issue issue = issuesById.get(entry.getId());
+            if (issue != null) {
+                issues.add(issue);
+            }
+        }
+        return issues;
+    }
+    
+    /**
+     * Walks the planned query in sort order, a batch at a time, applying the
+     * filters Firestore could not evaluate. Only the requested page (and the
+     * trailing page, for out-of-range requests) is kept in memory, and the walk
+     * stops after a document budget proportional to page * size; the response
+     * is then marked truncated and its totals cover the scanned part only.
+     */
+    private PaginatedResponse<Issue> scanIssues(IssueQueryPlanner.Plan plan, String searchTerm, int page, int size)
+            throws InterruptedException, ExecutionException {
+        String searchLower = searchTerm != null && !searchTerm.isEmpty() ? searchTerm.toLowerCase() : null;
+        List<Issue> pageItems = new ArrayList<>();
+        List<Issue> lastPageItems = new ArrayList<>();
+        int totalItems = 0;
+        int scanned = 0;
+        int budget = scanBudget(page, size);
+        boolean truncated = false;
+        
+        DocumentSnapshot lastDocument = null;
+        while (true) {
+            if (scanned >= budget) {
+                truncated = true;
+                break;
+            }
+            int batchSize = Math.min(SCAN_BATCH_SIZE, budget - scanned);
+            Query query = plan.getQuery().limit(batchSize);
+            if (lastDocument != null) {
+                query = query.startAfter(lastDocument);
+            }
+            List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
+            scanned += documents.size();
+            
+            for (QueryDocumentSnapshot document : documents) {
+                Issue issue = document.toObject(Issue.class);
+                if (!plan.matchesResidualFilters(issue) || !matchesSearchTerm(issue, searchLower)) {
+                    continue;
+                }
+                if (totalItems / size == page - 1) {
+                    pageItems.add(issue);
+                }
+                if (totalItems % size == 0) {
+                    lastPageItems = new ArrayList<>();
+                }
+                lastPageItems.add(issue);
+                totalItems++;
+            }
+            
+            if (documents.size() < batchSize) {
+                break;
+            }
+            lastDocument = documents.get(documents.size() - 1);
+        }
+        
+        // Requests past the end return the last page, as before
+        if (pageItems.isEmpty() && !truncated) {
+            pageItems = lastPageItems;
+        }
+        
+        logger.info("Successfully fetched {} issues by scanning {} documents (page {}/{}, total items: {}, truncated: {})", 
+                pageItems.size(), scanned, page, (int) Math.ceil((double) totalItems / size), totalItems, truncated);
+        
+        PaginatedResponse<Issue> response = new PaginatedResponse<>(pageItems, totalItems, page, size);
+        if (truncated) {
+            response.setTruncated(true);
+        }
+        return response;
+    }
+    
+    /**
+     * Maximum number of documents a residual-filter scan may read for a page.
+     */
+    private static int scanBudget(int page, int size) {
+        long budget = (long) page * size * SCAN_DOCUMENTS_PER_RESULT;
+        return (int) Math.min(MAX_SCANNED_DOCUMENTS, Math.max(SCAN_BATCH_SIZE, budget));
+    }
+    
+    private boolean matchesSearchTerm(Issue issue, String searchLower) {
+        if (searchLower == null) {
+            return true;
+        }
+        return (issue.getTitle() != null && issue.getTitle().toLowerCase().contains(searchLower)) ||
+            (issue.getDescription() != null && issue.getDescription().toLowerCase().contains(searchLower)) ||
+            (issue.getLocation() != null && issue.getLocation().toLowerCase().contains(searchLower)) ||
+            (issue.getReporterName() != null && issue.getReporterName().toLowerCase().contains(searchLower));
+    }
+    
     public Issue getIssueById(String issueId) {
         try {
             Firestore firestore = FirestoreClient.getFirestore();
             DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(issueId);
+            ApiFuture<QuerySnapshot> pendingUpvotes = upvoteCounterService.readPending(issueId);
             DocumentSnapshot document = docRef.get().get();
             
             if (!document.exists()) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Issue not found");
             }
             
-            return document.toObject(Issue.class);
+            Issue issue = document.toObject(Issue.class);
+            if (pendingUpvotes != null) {
+                // Add votes still sitting in counter shards
+                long pending = UpvoteCounterService.sum(pendingUpvotes.get());
+                issue.setUpvotes((int) ((issue.getUpvotes() != null ? issue.getUpvotes() : 0) + pending));
+            }
+            return issue;
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
@@ -311,24 +550,16 @@ public class IssueService {
      */
     public Issue updateIssueStatus(String issueId, IssueStatus status) {
         try {
-            Firestore firestore = FirestoreClient.getFirestore();
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(issueId);
-            DocumentSnapshot document = docRef.get().get();
-            
-            if (!document.exists()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Issue not found");
-            }
-            
-            // Update issue status
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("status", status);
-            updates.put("updatedAt", new Date());
-            
-            docRef.update(updates).get();
-            
-            // Fetch updated issue
-            document = docRef.get().get();
-            return document.toObject(Issue.class);
+            Issue updatedIssue = mutateIssue(issueId, issue -> {
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("status", status);
+                updates.put("updatedAt", new Date());
+                return updates;
+            });
+            issueCountService.invalidate();
+            searchIndex.index(updatedIssue);
+            clusterIndex.index(updatedIssue);
+            return updatedIssue;
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
@@ -347,27 +578,9 @@ public class IssueService {
      */
     public Issue updateIssueStatus(String issueId, IssueStatus status, String adminUid, String notes) {
         try {
-            Firestore firestore = FirestoreClient.getFirestore();
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(issueId);
-            DocumentSnapshot document = docRef.get().get();
-            
-            if (!document.exists()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Issue not found");
-            }
-            
-            // Update all fields at once for better efficiency
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("status", status);
-            updates.put("handledByAdminUid", adminUid);
-            updates.put("adminNotes", notes);
-            updates.put("lastStatusChangeAt", new Date());
-            updates.put("updatedAt", new Date());
-            
-            docRef.update(updates).get();
-            
-            // Fetch updated issue
-            document = docRef.get().get();
-            return document.toObject(Issue.class);
+            Issue updatedIssue = mutateIssue(issueId, issue -> adminStatusUpdates(status, adminUid, notes));
+            issueChanged(updatedIssue);
+            return updatedIssue;
         } catch (InterruptedException | ExecutionException e) {
             logger.error("Error updating issue admin info: {}", e.getMessage(), e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
@@ -375,39 +588,107 @@ public class IssueService {
         }
     }
     
+    /**
+     * Stages an admin status change on the issue as part of a caller's transaction
+     * and returns the issue as it will be once the transaction commits. Call
+     * issueChanged with the result after the commit.
+     * @param transaction Transaction the update is added to
+     * @param document Snapshot of the issue read in the same transaction
+     * @return Updated Issue
+     */
+    public Issue stageAdminStatusChange(Transaction transaction, DocumentSnapshot document, 
+                                        IssueStatus status, String adminUid, String notes) {
+        Map<String, Object> updates = adminStatusUpdates(status, adminUid, notes);
+        transaction.update(document.getReference(), updates);
+        
+        Issue issue = document.toObject(Issue.class);
+        applyUpdates(issue, updates);
+        return issue;
+    }
+    
+    public DocumentReference getIssueReference(String issueId) {
+        return FirestoreClient.getFirestore().collection(COLLECTION_NAME).document(issueId);
+    }
+    
+    /**
+     * Refreshes the count cache and in-memory indexes after an issue was
+     * changed by a write this service did not perform itself.
+     */
+    public void issueChanged(Issue issue) {
+        issueCountService.invalidate();
+        searchIndex.index(issue);
+        clusterIndex.index(issue);
+    }
+    
+    private Map<String, Object> adminStatusUpdates(IssueStatus status, String adminUid, String notes) {
+        // Update all fields at once for better efficiency
+        Date now = new Date();
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("status", status);
+        updates.put("handledByAdminUid", adminUid);
+        updates.put("adminNotes", notes);
+        updates.put("lastStatusChangeAt", now);
+        updates.put("updatedAt", now);
+        return updates;
+    }
+    
+    /**
+     * Records a user's upvote and increments the issue's counter (or one of its
+     * counter shards) in one transaction.
+     * The upvote document ID is derived from the user and issue, so the duplicate
+     * check is a point read and concurrent votes cannot be lost or double counted.
+     */
     public Issue upvoteIssue(String issueId, String userId) {
         try {
-            // Check if user has already upvoted this issue
-            if (userUpvoteRepository.hasUserUpvotedIssue(userId, issueId)) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
-                    "You have already upvoted this issue");
+            if (upvoteBuffer.isEnabled()) {
+                Issue bufferedIssue = bufferUpvote(issueId, userId);
+                if (bufferedIssue != null) {
+                    return bufferedIssue;
+                }
             }
             
             Firestore firestore = FirestoreClient.getFirestore();
             DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(issueId);
-            DocumentSnapshot document = docRef.get().get();
-            
-            if (!document.exists()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Issue not found");
+            DocumentReference upvoteRef = userUpvoteRepository.getReference(userId, issueId);
+            Query legacyUpvoteQuery = userUpvoteRepository.legacyUpvoteQuery(userId, issueId);
+            
+            Issue updatedIssue = firestore.runTransaction(transaction -> {
+                // Issue all reads up front so they share a single round trip
+                ApiFuture<List<DocumentSnapshot>> snapshots = transaction.getAll(docRef, upvoteRef);
+                ApiFuture<QuerySnapshot> legacyUpvotes = transaction.get(legacyUpvoteQuery);
+                DocumentSnapshot document = snapshots.get().get(0);
+                DocumentSnapshot upvote = snapshots.get().get(1);
+                
+                if (!document.exists()) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Issue not found");
+                }
+                if (upvote.exists() || !legacyUpvotes.get().isEmpty()) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                        "You have already upvoted this issue");
+                }
+                
+                Date now = new Date();
+                transaction.create(upvoteRef, new UserUpvote(userId, issueId).toMap());
+                upvoteCounterService.increment(transaction, docRef, now);
+                
+                // Build the result from the snapshot read in this transaction. With sharded
+                // counters this omits other votes that have not been rolled up yet.
+                Issue issue = document.toObject(Issue.class);
+                issue.setUpvotes((issue.getUpvotes() != null ? issue.getUpvotes() : 0) + 1);
+                if (!upvoteCounterService.isSharded()) {
+                    issue.setUpdatedAt(now);
+                }
+                return issue;
+            }).get();
+            
+            searchIndex.index(updatedIssue);
+            return updatedIssue;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResponseStatusException) {
+                throw (ResponseStatusException) e.getCause();
             }
-            
-            Issue issue = document.toObject(Issue.class);
-            Integer currentUpvotes = issue.getUpvotes();
-            
-            // Record the user's upvote
-            UserUpvote userUpvote = new UserUpvote(userId, issueId);
-            userUpvoteRepository.save(userUpvote);
-            
-            // Increment upvotes
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("upvotes", currentUpvotes + 1);
-            updates.put("updatedAt", new Date());
-            
-            docRef.update(updates).get();
-            
-            // Fetch updated issue
-            document = docRef.get().get();
-            return document.toObject(Issue.class);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to upvote issue: " + e.getMessage());
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
@@ -418,39 +699,196 @@ public class IssueService {
     
     public Issue addImageToIssue(String issueId, String imageUrl) {
         try {
-            Firestore firestore = FirestoreClient.getFirestore();
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(issueId);
+            return mutateIssue(issueId, issue -> {
+                List<String> imageUrls = issue.getImageUrls() != null 
+                    ? new ArrayList<>(issue.getImageUrls()) 
+                    : new ArrayList<>();
+                imageUrls.add(imageUrl);
+                
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("imageUrls", imageUrls);
+                updates.put("updatedAt", new Date());
+                return updates;
+            });
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to add image to issue: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Releases the images an update removed from an issue. Failures are only
+     * logged: the image is then kept, never deleted while in use.
+     */
+    private void releaseImageReferences(String issueId, List<String> imageIds) {
+        for (String imageId : imageIds) {
+            try {
+                imageRepository.releaseReference(imageId, issueId);
+            } catch (Exception e) {
+                logger.warn("Failed to release image {} of issue {}: {}", imageId, issueId, e.getMessage());
+            }
+        }
+    }
+    
+    private static ResponseStatusException imageNotFound() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+            "One of the issue's images was not found. Please upload it again.");
+    }
+    
+    /**
+     * Reads the issue, asks the mutation for the fields to change, and writes them
+     * guarded by the pre-image's update time. The result is the pre-image with the
+     * updates applied, which the precondition guarantees matches the stored document,
+     * so no read-after-write is needed. A concurrent write fails the precondition and
+     * the mutation is re-run against a fresh pre-image. Images the update adds to
+     * imageUrls get the issue as a reference in the same batch, so nothing is recorded
+     * unless the checks in the mutation passed and the issue write succeeds.
+     */
+    private Issue mutateIssue(String issueId, IssueMutation mutation) 
+            throws InterruptedException, ExecutionException {
+        Firestore firestore = FirestoreClient.getFirestore();
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(issueId);
+        
+        for (int attempt = 1; ; attempt++) {
             DocumentSnapshot document = docRef.get().get();
-            
             if (!document.exists()) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Issue not found");
             }
             
             Issue issue = document.toObject(Issue.class);
-            List<String> imageUrls = issue.getImageUrls();
-            if (imageUrls == null) {
-                imageUrls = new ArrayList<>();
+            Map<String, Object> updates = mutation.updates(issue);
+            WriteBatch batch = firestore.batch();
+            batch.update(docRef, updates, Precondition.updatedAt(document.getUpdateTime()));
+            if (updates.containsKey("imageUrls")) {
+                @SuppressWarnings("unchecked")
+                List<String> addedImageIds = new ArrayList<>(
+                    ImageUrlUtil.imageIds((List<String>) updates.get("imageUrls")));
+                addedImageIds.removeAll(ImageUrlUtil.imageIds(issue.getImageUrls()));
+                imageRepository.stageAddReferences(batch, issueId, addedImageIds);
+            }
+            try {
+                batch.commit().get();
+            } catch (ExecutionException e) {
+                if (attempt < MAX_MUTATION_ATTEMPTS && isPreconditionFailure(e)) {
+                    logger.debug("Issue {} changed concurrently, retrying update", issueId);
+                    continue;
+                }
+                if (hasStatus(e, StatusCode.Code.NOT_FOUND)) {
+                    // The issue is known to exist, so the missing document is one of the images
+                    throw imageNotFound();
+                }
+                throw e;
+            }
+            applyUpdates(issue, updates);
+            return issue;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void applyUpdates(Issue issue, Map<String, Object> updates) {
+        for (Map.Entry<String, Object> update : updates.entrySet()) {
+            Object value = update.getValue();
+            switch (update.getKey()) {
+                case "title": issue.setTitle((String) value); break;
+                case "description": issue.setDescription((String) value); break;
+                case "location": issue.setLocation((String) value); break;
+                case "latitude": issue.setLatitude((Double) value); break;
+                case "longitude": issue.setLongitude((Double) value); break;
+                case "geohash": issue.setGeohash((String) value); break;
+                case "imageUrls": issue.setImageUrls((List<String>) value); break;
+                case "status": issue.setStatus((IssueStatus) value); break;
+                case "handledByAdminUid": issue.setHandledByAdminUid((String) value); break;
+                case "adminNotes": issue.setAdminNotes((String) value); break;
+                case "lastStatusChangeAt": issue.setLastStatusChangeAt((Date) value); break;
+                case "updatedAt": issue.setUpdatedAt((Date) value); break;
+                default:
+                    throw new IllegalArgumentException("Unsupported issue field: " + update.getKey());
+            }
+        }
+    }
+    
+    private static boolean isPreconditionFailure(Throwable e) {
+        return hasStatus(e, StatusCode.Code.FAILED_PRECONDITION);
+    }
+    
+    private static boolean hasStatus(Throwable e, StatusCode.Code code) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException 
+                    && ((ApiException) cause).getStatusCode().getCode() == code) {
+                return true;
             }
-            imageUrls.add(imageUrl);
-            
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("imageUrls", imageUrls);
-            updates.put("updatedAt", new Date());
-            
-            docRef.update(updates).get();
-            
-            // Fetch updated issue
-            document = docRef.get().get();
-            return document.toObject(Issue.class);
-        } catch (ResponseStatusException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
-                "Failed to add image to issue: " + e.getMessage());
+        }
+        return false;
+    }
+    
+    /**
+     * Field updates for one issue, computed from its current state.
+     */
+    @FunctionalInterface
+    private interface IssueMutation {
+        Map<String, Object> updates(Issue current);
+    }
+    
+    /**
+     * Geohash stored alongside the coordinates so nearby queries can use a range scan.
+     */
+    private String computeGeohash(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        return GeoHashUtil.encode(latitude, longitude, GeoHashUtil.MAX_PRECISION);
+    }
+    
+    /**
+     * Write-behind upvote: checks the issue and any earlier upvote (deterministic
+     * or legacy) with one round of reads, then hands the vote to the buffer, so
+     * a duplicate is rejected here rather than silently skipped by the flush.
+     * The returned issue is the one just read, with the new vote added.
+     * Returns null when the buffer is full, so the caller takes the
+     * transactional path instead.
+     */
+    private Issue bufferUpvote(String issueId, String userId) throws InterruptedException, ExecutionException {
+        if (upvoteBuffer.isPending(userId, issueId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                "You have already upvoted this issue");
+        }
+        
+        Firestore firestore = FirestoreClient.getFirestore();
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(issueId);
+        ApiFuture<List<DocumentSnapshot>> snapshots = 
+            firestore.getAll(docRef, userUpvoteRepository.getReference(userId, issueId));
+        ApiFuture<QuerySnapshot> legacyUpvotes = userUpvoteRepository.legacyUpvoteQuery(userId, issueId).get();
+        DocumentSnapshot document = snapshots.get().get(0);
+        DocumentSnapshot upvote = snapshots.get().get(1);
+        
+        if (!document.exists()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Issue not found");
+        }
+        if (upvote.exists() || !legacyUpvotes.get().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                "You have already upvoted this issue");
+        }
+        
+        switch (upvoteBuffer.offer(userId, issueId)) {
+            case DUPLICATE:
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                    "You have already upvoted this issue");
+            case FULL:
+                return null;
+            case ACCEPTED:
+            default:
+                Issue issue = document.toObject(Issue.class);
+                issue.setUpvotes((issue.getUpvotes() != null ? issue.getUpvotes() : 0) + 1);
+                return issue;
         }
     }
     
     public boolean hasUserUpvotedIssue(String userId, String issueId) {
+        if (upvoteBuffer.isEnabled() && upvoteBuffer.isPending(userId, issueId)) {
+            return true;
+        }
         return userUpvoteRepository.hasUserUpvotedIssue(userId, issueId);
     }
     
@@ -472,16 +910,21 @@ public class IssueService {
                     "You don't have permission to delete this issue");
             }
             
-            // Delete the issue
-            docRef.delete().get();
-            
-            // Delete all upvotes for this issue
-            // This would be a good place to use a transaction or batch write
-            // to ensure atomicity, but for simplicity we'll just delete them separately
-            userUpvoteRepository.deleteByIssueId(issueId);
+            // Delete the issue now; upvotes, logs and images are cleaned up in the background
+            issueDeletionService.deleteIssue(document);
+            issueCountService.invalidate();
+            searchIndex.remove(issueId);
+            clusterIndex.remove(issueId);
             
         } catch (ResponseStatusException e) {
             throw e;
+        } catch (ExecutionException e) {
+            if (isPreconditionFailure(e)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, 
+                    "Issue was modified while being deleted, please retry");
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                "Failed to delete issue: " + e.getMessage());
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                 "Failed to delete issue: " + e.getMessage());
@@ -490,41 +933,42 @@ public class IssueService {
     
     public Issue updateIssue(String issueId, CreateIssueRequest request) {
         try {
-            Firestore firestore = FirestoreClient.getFirestore();
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(issueId);
-            DocumentSnapshot document = docRef.get().get();
-            
-            if (!document.exists()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Issue not found");
-            }
-            
-            Issue existingIssue = document.toObject(Issue.class);
-            
-            // Check if the user is the owner of the issue
-            if (!existingIssue.getReporterUid().equals(request.getReporterUid())) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
-                    "You don't have permission to update this issue");
-            }
-            
-            // Update issue fields
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("title", request.getTitle());
-            updates.put("description", request.getDescription());
-            updates.put("location", request.getLocation());
-            updates.put("latitude", request.getLatitude());
-            updates.put("longitude", request.getLongitude());
-            updates.put("updatedAt", new Date());
-            
-            // Only update image URLs if provided
-            if (request.getImageUrls() != null && !request.getImageUrls().isEmpty()) {
-                updates.put("imageUrls", request.getImageUrls());
+            boolean replacesImages = request.getImageUrls() != null && !request.getImageUrls().isEmpty();
+            List<String> previousImageIds = new ArrayList<>();
+            Issue updatedIssue = mutateIssue(issueId, existingIssue -> {
+                // Check if the user is the owner of the issue
+                if (!existingIssue.getReporterUid().equals(request.getReporterUid())) {
+                    throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
+                        "You don't have permission to update this issue");
+                }
+                previousImageIds.clear();
+                previousImageIds.addAll(ImageUrlUtil.imageIds(existingIssue.getImageUrls()));
+                
+                // Update issue fields
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("title", request.getTitle());
+                updates.put("description", request.getDescription());
+                updates.put("location", request.getLocation());
+                updates.put("latitude", request.getLatitude());
+                updates.put("longitude", request.getLongitude());
+                updates.put("geohash", computeGeohash(request.getLatitude(), request.getLongitude()));
+                updates.put("updatedAt", new Date());
+                
+                // Only update image URLs if provided
+                if (replacesImages) {
+                    updates.put("imageUrls", request.getImageUrls());
+                }
+                return updates;
+            });
+            if (replacesImages) {
+                previousImageIds.removeAll(ImageUrlUtil.imageIds(updatedIssue.getImageUrls()));
+                releaseImageReferences(issueId, previousImageIds);
             }
-            
-            docRef.update(updates).get();
-            
-            // Fetch updated issue
-            document = docRef.get().get();
-            return document.toObject(Issue.class);
+            // Location changes move the issue between count keys
+            issueCountService.invalidate();
+            searchIndex.index(updatedIssue);
+            clusterIndex.index(updatedIssue);
+            return updatedIssue;
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
@@ -532,4 +976,4 @@ public class IssueService {
                 "Failed to update issue: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.util.FirestoreBulkDelete;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes issue upvote increments, optionally spread over sharded counters.
+ *
+ * With issues.upvotes.shards greater than 1 each vote increments a random
+ * document under issues/{id}/upvote_shards instead of the issue itself, so a
+ * trending issue is not limited by the write rate of a single document. A
+ * periodic roll-up moves the shard totals into Issue.upvotes in one batch
+ * (issue += sum, each shard -= its count), which keeps sorting and filtering on
+ * upvotes working; the exact total is Issue.upvotes plus the shard counts.
+ */
+@Service
+public class UpvoteCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpvoteCounterService.class);
+    private static final String COLLECTION_NAME = "issues";
+    private static final String SHARD_COLLECTION = "upvote_shards";
+    private static final String COUNT_FIELD = "count";
+
+    private final int shardCount;
+    // Issues with shard increments not yet rolled up by this instance
+    private final Set<String> dirtyIssues = ConcurrentHashMap.newKeySet();
+
+    public UpvoteCounterService(@Value("${issues.upvotes.shards:0}") int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * Adds one upvote to the issue as part of the given transaction.
+     */
+    public void increment(Transaction transaction, DocumentReference issueRef, Date now) {
+        if (!isSharded()) {
+            transaction.update(issueRef, "upvotes", FieldValue.increment(1), "updatedAt", now);
+            return;
+        }
+        transaction.set(randomShard(issueRef), Map.of(COUNT_FIELD, FieldValue.increment(1)), SetOptions.merge());
+        dirtyIssues.add(issueRef.getId());
+    }
+
+    /**
+     * Adds a number of upvotes to the issue as part of the given batch.
+     */
+    public void increment(WriteBatch batch, DocumentReference issueRef, long delta, Date now) {
+        if (!isSharded()) {
+            batch.update(issueRef, "upvotes", FieldValue.increment(delta), "updatedAt", now);
+            return;
+        }
+        batch.set(randomShard(issueRef), Map.of(COUNT_FIELD, FieldValue.increment(delta)), SetOptions.merge());
+        dirtyIssues.add(issueRef.getId());
+    }
+
+    /**
+     * Starts reading the upvotes not yet rolled up into the issue document,
+     * or returns null when sharding is disabled.
+     */
+    public ApiFuture<QuerySnapshot> readPending(String issueId) {
+        if (!isSharded()) {
+            return null;
+        }
+        return shards(issueRef(issueId)).get();
+    }
+
+    public static long sum(QuerySnapshot shardSnapshot) {
+        long total = 0;
+        for (QueryDocumentSnapshot shard : shardSnapshot.getDocuments()) {
+            Long count = shard.getLong(COUNT_FIELD);
+            total += count != null ? count : 0;
+        }
+        return total;
+    }
+
+    /**
+     * Folds shard counts into Issue.upvotes for every issue voted on since the
+     * last roll-up.
+     */
+    @Scheduled(fixedDelayString = "${issues.upvotes.rollup-interval-ms:5000}")
+    public void rollUp() {
+        if (!isSharded() || dirtyIssues.isEmpty()) {
+            return;
+        }
+        List<String> issueIds = new ArrayList<>(dirtyIssues);
+        dirtyIssues.removeAll(issueIds);
+
+        for (String issueId : issueIds) {
+            try {
+                rollUp(issueId);
+            } catch (Exception e) {
+                logger.warn("Upvote roll-up failed for issue {}: {}", issueId, e.getMessage());
+                dirtyIssues.add(issueId);
+            }
+        }
+    }
+
+    private void rollUp(String issueId) throws Exception {
+        Firestore firestore = FirestoreClient.getFirestore();
+        DocumentReference issueRef = issueRef(issueId);
+        if (!issueRef.get().get().exists()) {
+            deleteShards(issueId);
+            return;
+        }
+
+        // Increments commute, so the batch is exact even if votes land while it runs
+        WriteBatch batch = firestore.batch();
+        long total = 0;
+        for (QueryDocumentSnapshot shard : shards(issueRef).get().get().getDocuments()) {
+            Long count = shard.getLong(COUNT_FIELD);
+            if (count != null && count != 0) {
+                batch.update(shard.getReference(), COUNT_FIELD, FieldValue.increment(-count));
+                total += count;
+            }
+        }
+        if (total != 0) {
+            batch.update(issueRef, "upvotes", FieldValue.increment(total), "updatedAt", new Date());
+            batch.commit().get();
+            logger.debug("Rolled up {} upvotes for issue {}", total, issueId);
+        }
+    }
+
+    /**
+     * Removes an issue's counter shards.
+     */
+    public void deleteShards(String issueId) throws ExecutionException, InterruptedException {
+        FirestoreBulkDelete.deleteAll(shards(issueRef(issueId)));
+        dirtyIssues.remove(issueId);
+    }
+
+    private DocumentReference issueRef(String issueId) {
+        return FirestoreClient.getFirestore().collection(COLLECTION_NAME).document(issueId);
+    }
+
+    private DocumentReference randomShard(DocumentReference issueRef) {
+        return shards(issueRef).document(String.valueOf(ThreadLocalRandom.current().nextInt(shardCount)));
+    }
+
+    private CollectionReference shards(DocumentReference issueRef) {
+        return issueRef.collection(SHARD_COLLECTION);
+    }
+}
@@ -0,0 +1,331 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.UserUpvote;
+import com.fixit.FixIt.repository.UserUpvoteRepository;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.firebase.cloud.FirestoreClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind buffer for upvotes (issues.upvotes.write-behind.enabled).
+ *
+ * Accepted votes are deduplicated per user and issue in memory, appended to a
+ * synced local journal, and written to Firestore by a flush that runs on its
+ * own thread and coalesces them into WriteBatch commits. A vote counts as pending until its
+ * batch has committed, so it is never missing from both the buffer and Firestore. Journal segments are deleted only
+ * after every vote they hold has been committed, and replayed on startup, so a
+ * crash loses no accepted votes. Callers reject votes that already exist in
+ * Firestore (including legacy auto-ID upvotes) before offering them; a flush
+ * still skips votes whose user_upvotes document exists, which makes replaying
+ * a partly flushed segment safe.
+ * When the buffer is full, callers fall back to the synchronous upvote path.
+ */
+@Component
+public class UpvoteWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpvoteWriteBehindBuffer.class);
+    private static final String COLLECTION_NAME = "issues";
+    private static final String SEGMENT_PREFIX = "upvotes-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    // Up to 200 upvote creates plus 200 counter increments, below the 500 writes per batch
+    private static final int VOTES_PER_BATCH = 200;
+
+    private final boolean enabled;
+    private final int maxPending;
+    private final long flushIntervalMillis;
+    private final Path journalDir;
+    private final UpvoteCounterService upvoteCounterService;
+    private final UserUpvoteRepository userUpvoteRepository;
+
+    private final Object lock = new Object();
+    private final Map<String, UserUpvote> pending = new LinkedHashMap<>();
+    // Votes taken by a flush whose batch has not committed yet
+    private final Map<String, UserUpvote> inFlight = new HashMap<>();
+    // Closed journal segments whose votes have not all been committed yet
+    private final List<Path> closedSegments = new ArrayList<>();
+    private FileChannel segment;
+    private Path segmentPath;
+    private long segmentSequence;
+    // Own thread, so a flush is never held up by the shared @Scheduled thread
+    private ScheduledExecutorService flusher;
+
+    public UpvoteWriteBehindBuffer(
+            @Value("${issues.upvotes.write-behind.enabled:false}") boolean enabled,
+            @Value("${issues.upvotes.write-behind.max-pending:10000}") int maxPending,
+            @Value("${issues.upvotes.write-behind.flush-interval-ms:500}") long flushIntervalMillis,
+            @Value("${issues.upvotes.write-behind.journal-dir:./data/upvote-journal}") String journalDir,
+            UpvoteCounterService upvoteCounterService,
+            UserUpvoteRepository userUpvoteRepository) {
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.journalDir = Paths.get(journalDir);
+        this.upvoteCounterService = upvoteCounterService;
+        this.userUpvoteRepository = userUpvoteRepository;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replays the journal and starts flushing every flush-interval-ms.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        recover();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upvote-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // An escaping exception would cancel every later flush
+                logger.error("Upvote flush failed: {}", e.getMessage(), e);
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replays journal segments left by a previous run into the buffer.
+     */
+    void recover() throws IOException {
+        Files.createDirectories(journalDir);
+        synchronized (lock) {
+            try (DirectoryStream<Path> segments = Files.newDirectoryStream(journalDir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path path : segments) {
+                    for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                        String[] parts = line.split("\t");
+                        if (parts.length == 3) {
+                            UserUpvote upvote = new UserUpvote(parts[0], parts[1]);
+                            upvote.setCreatedAt(new Date(Long.parseLong(parts[2])));
+                            pending.putIfAbsent(upvote.getId(), upvote);
+                        }
+                    }
+                    closedSegments.add(path);
+                    segmentSequence = Math.max(segmentSequence, sequenceOf(path) + 1);
+                }
+            }
+            openSegment();
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Recovered {} buffered upvotes from the journal", pending.size());
+        }
+    }
+
+    /**
+     * Buffers an upvote.
+     *
+     * @return ACCEPTED, DUPLICATE if the same vote is already buffered, or FULL
+     *         if the buffer is at capacity and the caller should write directly
+     */
+    public Result offer(String userId, String issueId) {
+        UserUpvote upvote = new UserUpvote(userId, issueId);
+        synchronized (lock) {
+            if (pending.containsKey(upvote.getId()) || inFlight.containsKey(upvote.getId())) {
+                return Result.DUPLICATE;
+            }
+            if (pending.size() + inFlight.size() >= maxPending) {
+                return Result.FULL;
+            }
+            try {
+                String line = userId + "\t" + issueId + "\t" + upvote.getCreatedAt().getTime() + "\n";
+                segment.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                logger.error("Failed to journal upvote: {}", e.getMessage(), e);
+                return Result.FULL;
+            }
+            pending.put(upvote.getId(), upvote);
+            return Result.ACCEPTED;
+        }
+    }
+
+    /**
+     * Whether the vote is buffered or being flushed, i.e. accepted but not yet
+     * readable from Firestore.
+     */
+    public boolean isPending(String userId, String issueId) {
+        String id = UserUpvote.documentId(userId, issueId);
+        synchronized (lock) {
+            return pending.containsKey(id) || inFlight.containsKey(id);
+        }
+    }
+
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<UserUpvote> votes;
+        List<Path> flushedSegments;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                segment.close();
+                closedSegments.add(segmentPath);
+                openSegment();
+            } catch (IOException e) {
+                logger.error("Failed to rotate upvote journal: {}", e.getMessage(), e);
+                return;
+            }
+            votes = new ArrayList<>(pending.values());
+            inFlight.putAll(pending);
+            pending.clear();
+            flushedSegments = new ArrayList<>(closedSegments);
+        }
+
+        try {
+            for (int start = 0; start < votes.size(); start += VOTES_PER_BATCH) {
+                List<UserUpvote> chunk = votes.subList(start, Math.min(votes.size(), start + VOTES_PER_BATCH));
+                commit(chunk);
+                synchronized (lock) {
+                    // Committed votes are now found by the Firestore checks
+                    for (UserUpvote vote : chunk) {
+                        inFlight.remove(vote.getId());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // Already committed votes are skipped on the next attempt
+            logger.warn("Upvote flush failed, {} votes will be retried: {}", votes.size(), e.getMessage());
+            synchronized (lock) {
+                requeue(votes);
+            }
+            return;
+        }
+
+        synchronized (lock) {
+            for (Path path : flushedSegments) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete upvote journal segment {}: {}", path, e.getMessage());
+                }
+            }
+            closedSegments.removeAll(flushedSegments);
+        }
+        logger.debug("Flushed {} buffered upvotes", votes.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        flush();
+        synchronized (lock) {
+            segment.close();
+        }
+    }
+
+    /**
+     * Writes one chunk of votes in a single batch, skipping votes that already
+     * exist and votes for issues that have been deleted.
+     */
+    private void commit(List<UserUpvote> votes) throws Exception {
+        Firestore firestore = FirestoreClient.getFirestore();
+        Map<String, DocumentReference> issueRefs = new LinkedHashMap<>();
+        List<DocumentReference> refs = new ArrayList<>();
+        for (UserUpvote vote : votes) {
+            refs.add(userUpvoteRepository.getReference(vote.getUserId(), vote.getIssueId()));
+            issueRefs.computeIfAbsent(vote.getIssueId(), id -> firestore.collection(COLLECTION_NAME).document(id));
+        }
+        refs.addAll(issueRefs.values());
+
+        // One round trip for every existence check in the chunk
+        List<DocumentSnapshot> snapshots = firestore.getAll(refs.toArray(new DocumentReference[0])).get();
+        Map<String, Boolean> exists = new HashMap<>();
+        for (DocumentSnapshot snapshot : snapshots) {
+            exists.put(snapshot.getReference().getPath(), snapshot.exists());
+        }
+
+        WriteBatch batch = firestore.batch();
+        Map<String, Long> increments = new LinkedHashMap<>();
+        for (int i = 0; i < votes.size(); i++) {
+            UserUpvote vote = votes.get(i);
+            DocumentReference issueRef = issueRefs.get(vote.getIssueId());
+            if (exists.getOrDefault(refs.get(i).getPath(), false)
+                    || !exists.getOrDefault(issueRef.getPath(), false)) {
+                continue;
+            }
+            batch.create(refs.get(i), vote.toMap());
+            increments.merge(vote.getIssueId(), 1L, Long::sum);
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        Date now = new Date();
+        for (Map.Entry<String, Long> entry : increments.entrySet()) {
+            upvoteCounterService.increment(batch, issueRefs.get(entry.getKey()), entry.getValue(), now);
+        }
+        batch.commit().get();
+    }
+
+    private void requeue(List<UserUpvote> votes) {
+        for (UserUpvote vote : votes) {
+            if (inFlight.remove(vote.getId()) != null) {
+                pending.putIfAbsent(vote.getId(), vote);
+            }
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segmentPath = journalDir.resolve(SEGMENT_PREFIX + segmentSequence++ + SEGMENT_SUFFIX);
+        segment = FileChannel.open(segmentPath,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public enum Result {
+        ACCEPTED,
+        DUPLICATE,
+        FULL
+    }
+}
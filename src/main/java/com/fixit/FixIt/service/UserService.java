@@ -3,17 +3,13 @@ package com.fixit.FixIt.service;
 import com.fixit.FixIt.dto.UserProfileRequest;
 import com.fixit.FixIt.dto.UserProfileResponse;
 import com.fixit.FixIt.exception.ResourceNotFoundException;
-import com.fixit.FixIt.model.Issue;
 import com.fixit.FixIt.model.IssueStatus;
 import com.fixit.FixIt.model.User;
 import com.fixit.FixIt.repository.UserRepository;
+import com.fixit.FixIt.repository.UsernameRepository;
 import com.fixit.FixIt.util.AppConstants;
-import com.google.cloud.firestore.CollectionReference;
-import com.google.cloud.firestore.Query;
-import com.google.cloud.firestore.QuerySnapshot;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.UserRecord;
-import com.google.firebase.cloud.FirestoreClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -31,10 +27,18 @@ public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
     private final FirebaseAuthService firebaseAuthService;
+    private final IssueCountService issueCountService;
+    private final UsernameRepository usernameRepository;
 
-    public UserService(UserRepository userRepository, FirebaseAuthService firebaseAuthService) {
+    public UserService(
+            UserRepository userRepository, 
+            FirebaseAuthService firebaseAuthService, 
+            IssueCountService issueCountService,
+            UsernameRepository usernameRepository) {
         this.userRepository = userRepository;
         this.firebaseAuthService = firebaseAuthService;
+        this.issueCountService = issueCountService;
+        this.usernameRepository = usernameRepository;
     }
 
     public User registerUser(String username, String password, String email) {
@@ -120,23 +124,9 @@ public class UserService {
         logger.info("Getting issue statistics for user: {}", uid);
         int[] stats = new int[2]; // [total, resolved]
         
-        // Query Firestore for issues created by this user
-        CollectionReference issuesCollection = FirestoreClient.getFirestore().collection("issues");
-        
-        // Get total reported issues
-        QuerySnapshot totalSnapshot = issuesCollection
-            .whereEqualTo("reporterUid", uid)
-            .get()
-            .get();
-        stats[0] = totalSnapshot.size();
-        
-        // Get resolved issues
-        QuerySnapshot resolvedSnapshot = issuesCollection
-            .whereEqualTo("reporterUid", uid)
-            .whereEqualTo("status", IssueStatus.RESOLVED)
-            .get()
-            .get();
-        stats[1] = resolvedSnapshot.size();
+        // Server-side counts; no issue documents are transferred
+        stats[0] = (int) issueCountService.countByReporter(uid);
+        stats[1] = (int) issueCountService.countByReporterAndStatus(uid, IssueStatus.RESOLVED);
         
         logger.info("User {} has reported {} issues, with {} resolved", uid, stats[0], stats[1]);
         return stats;
@@ -277,7 +267,8 @@ public class UserService {
                     "Error deleting user from authentication system: " + e.getMessage());
             }
             
-            // Delete from Firestore
+            // Free the username, then delete from Firestore
+            usernameRepository.release(uid);
             userRepository.deleteById(uid);
             logger.info("User account deleted successfully: {}", uid);
         } catch (ResourceNotFoundException e) {
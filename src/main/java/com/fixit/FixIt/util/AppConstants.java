@@ -36,6 +36,10 @@ public final class AppConstants {
     public static final String UPVOTES_COLLECTION = "upvotes";
     public static final String ADMINS_COLLECTION = "admins";
     public static final String STATUS_CHANGE_LOGS_COLLECTION = "statusChangeLogs";
+    public static final String ANALYTICS_DAILY_COLLECTION = "analyticsDaily";
+    public static final String ISSUE_DELETION_JOBS_COLLECTION = "issueDeletionJobs";
+    public static final String ISSUE_TOMBSTONES_COLLECTION = "issueTombstones";
+    public static final String IMAGES_COLLECTION = "images";
     
     // Storage paths
     public static final String ISSUE_IMAGES_PATH = "issue-images";
@@ -58,6 +62,7 @@ public final class AppConstants {
     public static final String SORT_MOST_UPVOTED = "most-upvoted";
     public static final String SORT_LEAST_UPVOTED = "least-upvoted";
     public static final String SORT_RECENTLY_UPDATED = "recently-updated";
+    public static final String SORT_RELEVANCE = "relevance";
     
     // Error Messages
     public static final String USER_NOT_FOUND = "User not found";
@@ -0,0 +1,120 @@
+package com.fixit.FixIt.util;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Deletes every document matched by a query.
+ *
+ * Matching documents are paged by document ID (IDs only, no field data) in
+ * pages of one full WriteBatch, and each page is committed as a batch while
+ * the next page is read. Up to maxInFlight batches are committed at a time.
+ */
+public final class FirestoreBulkDelete {
+
+    // Firestore's limit on writes per batch
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+    private static final Logger logger = LoggerFactory.getLogger(FirestoreBulkDelete.class);
+
+    private FirestoreBulkDelete() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static long deleteAll(Query query) throws ExecutionException, InterruptedException {
+        return deleteAll(query, DEFAULT_MAX_IN_FLIGHT, total -> logger.debug("Bulk delete progress: {} documents", total));
+    }
+
+    /**
+     * @param query Filters selecting the documents to delete; must not have its own ordering
+     * @param maxInFlight Maximum number of batch commits running at once
+     * @param progress Optional callback given the running total after each committed batch
+     * @return Number of documents deleted
+     * @throws ExecutionException If a page read or batch commit fails; batches
+     *         already committed stay deleted, so the call can simply be repeated
+     */
+    public static long deleteAll(Query query, int maxInFlight, LongConsumer progress)
+            throws ExecutionException, InterruptedException {
+        Query pageQuery = query.select(FieldPath.documentId())
+            .orderBy(FieldPath.documentId())
+            .limit(MAX_BATCH_SIZE);
+
+        Semaphore permits = new Semaphore(Math.max(1, maxInFlight));
+        AtomicLong deleted = new AtomicLong();
+        AtomicBoolean failed = new AtomicBoolean();
+        List<ApiFuture<List<WriteResult>>> commits = new ArrayList<>();
+
+        try {
+            QueryDocumentSnapshot last = null;
+            // Stop paging as soon as a commit has failed
+            while (!failed.get()) {
+                List<QueryDocumentSnapshot> page = (last == null ? pageQuery : pageQuery.startAfter(last))
+                    .get().get().getDocuments();
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                WriteBatch batch = query.getFirestore().batch();
+                for (QueryDocumentSnapshot document : page) {
+                    batch.delete(document.getReference());
+                }
+
+                permits.acquire();
+                ApiFuture<List<WriteResult>> commit = batch.commit();
+                int size = page.size();
+                commit.addListener(() -> {
+                    permits.release();
+                    if (!isSuccessful(commit)) {
+                        failed.set(true);
+                        return;
+                    }
+                    long total = deleted.addAndGet(size);
+                    if (progress != null) {
+                        progress.accept(total);
+                    }
+                }, Runnable::run);
+                commits.add(commit);
+
+                if (size < MAX_BATCH_SIZE) {
+                    break;
+                }
+                last = page.get(page.size() - 1);
+            }
+        } finally {
+            // Let commits already sent finish before returning or rethrowing
+            for (ApiFuture<List<WriteResult>> commit : commits) {
+                isSuccessful(commit);
+            }
+        }
+
+        for (ApiFuture<List<WriteResult>> commit : commits) {
+            commit.get();
+        }
+        logger.debug("Bulk deleted {} documents in {} batches", deleted.get(), commits.size());
+        return deleted.get();
+    }
+
+    // Waits for the future and reports whether it completed without an exception
+    private static boolean isSuccessful(ApiFuture<?> future) {
+        try {
+            future.get();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
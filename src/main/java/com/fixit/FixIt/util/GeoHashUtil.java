@@ -0,0 +1,185 @@
+package com.fixit.FixIt.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding and helpers for turning a bounding box into a small set of
+ * geohash prefixes that can be queried as Firestore range scans.
+ */
+public final class GeoHashUtil {
+
+    public static final int MAX_PRECISION = 9;
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private GeoHashUtil() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Geohash cells covering a bounding box, at the finest precision that needs
+     * no more than maxCells cells. Boxes crossing the antimeridian are not split.
+     */
+    public static Set<String> coveringCells(double minLat, double minLng, double maxLat, double maxLng, int maxCells) {
+        for (int precision = MAX_PRECISION; precision > 1; precision--) {
+            double cellHeight = cellHeight(precision);
+            double cellWidth = cellWidth(precision);
+            long rows = (long) (Math.floor((maxLat + 90) / cellHeight) - Math.floor((minLat + 90) / cellHeight)) + 1;
+            long cols = (long) (Math.floor((maxLng + 180) / cellWidth) - Math.floor((minLng + 180) / cellWidth)) + 1;
+            if (rows * cols <= maxCells) {
+                return cells(minLat, minLng, maxLat, maxLng, precision);
+            }
+        }
+        return cells(minLat, minLng, maxLat, maxLng, 1);
+    }
+
+    /**
+     * The cells one character longer than the given cell that lie inside it and
+     * intersect the bounding box. Used to split a cell whose scan hit its limit.
+     */
+    public static Set<String> subdivide(String cell, double minLat, double minLng, double maxLat, double maxLng) {
+        double[] cellBox = bounds(cell);
+        double lat0 = Math.max(minLat, cellBox[0]);
+        double lng0 = Math.max(minLng, cellBox[1]);
+        double lat1 = Math.min(maxLat, cellBox[2]);
+        double lng1 = Math.min(maxLng, cellBox[3]);
+        Set<String> children = new LinkedHashSet<>();
+        if (lat0 > lat1 || lng0 > lng1) {
+            return children;
+        }
+        for (String child : cells(lat0, lng0, lat1, lng1, cell.length() + 1)) {
+            // The sampling can step onto a neighbour when the box ends on the cell's edge
+            if (child.startsWith(cell)) {
+                children.add(child);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Area covered by a geohash cell, as {minLat, minLng, maxLat, maxLng}.
+     */
+    public static double[] bounds(String geohash) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        boolean evenBit = true;
+        for (int i = 0; i < geohash.length(); i++) {
+            int ch = BASE32.indexOf(geohash.charAt(i));
+            if (ch < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + geohash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((ch >> bit) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLng + maxLng) / 2;
+                    if (set) {
+                        minLng = mid;
+                    } else {
+                        maxLng = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[] {minLat, minLng, maxLat, maxLng};
+    }
+
+    /**
+     * Great-circle distance between two points in kilometres.
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+            * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Bounding box enclosing a circle, as {minLat, minLng, maxLat, maxLng}.
+     */
+    public static double[] boundingBox(double latitude, double longitude, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double dLng = cosLat > 1e-6 ? radiusKm / (KM_PER_DEGREE_LAT * cosLat) : 180;
+        return new double[] {
+            Math.max(-90, latitude - dLat),
+            Math.max(-180, longitude - dLng),
+            Math.min(90, latitude + dLat),
+            Math.min(180, longitude + dLng)
+        };
+    }
+
+    public static double cellHeight(int precision) {
+        int latBits = (5 * precision) / 2;
+        return 180.0 / (1L << latBits);
+    }
+
+    public static double cellWidth(int precision) {
+        int lngBits = (5 * precision + 1) / 2;
+        return 360.0 / (1L << lngBits);
+    }
+
+    private static Set<String> cells(double minLat, double minLng, double maxLat, double maxLng, int precision) {
+        double cellHeight = cellHeight(precision);
+        double cellWidth = cellWidth(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        // Sample the centre of every cell row/column the box touches
+        double startLat = Math.floor((minLat + 90) / cellHeight) * cellHeight - 90 + cellHeight / 2;
+        double startLng = Math.floor((minLng + 180) / cellWidth) * cellWidth - 180 + cellWidth / 2;
+        for (double lat = startLat; lat - cellHeight / 2 <= maxLat && lat < 90; lat += cellHeight) {
+            for (double lng = startLng; lng - cellWidth / 2 <= maxLng && lng < 180; lng += cellWidth) {
+                cells.add(encode(lat, lng, precision));
+            }
+        }
+        return cells;
+    }
+}
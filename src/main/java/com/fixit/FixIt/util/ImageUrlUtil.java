@@ -0,0 +1,42 @@
+package com.fixit.FixIt.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps between image IDs and the URLs issues store in imageUrls.
+ */
+public final class ImageUrlUtil {
+
+    public static final String IMAGE_URL_PREFIX = "/api/images/";
+
+    private ImageUrlUtil() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static String imageUrl(String imageId) {
+        return IMAGE_URL_PREFIX + imageId;
+    }
+
+    /**
+     * IDs of the images served from the images collection, in order and
+     * without duplicates. URLs of externally hosted images are skipped.
+     */
+    public static List<String> imageIds(List<String> imageUrls) {
+        List<String> ids = new ArrayList<>();
+        if (imageUrls == null) {
+            return ids;
+        }
+        for (String url : imageUrls) {
+            int start = url != null ? url.indexOf(IMAGE_URL_PREFIX) : -1;
+            if (start < 0) {
+                continue;
+            }
+            String id = url.substring(start + IMAGE_URL_PREFIX.length()).split("[/?#]", 2)[0];
+            if (!id.isEmpty() && !ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,50 @@
+package com.fixit.FixIt.util;
+
+/**
+ * Helpers for deriving coarse location keys from the free-text issue location
+ * ("City, District, ...").
+ */
+public final class LocationUtil {
+
+    private LocationUtil() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static String extractDistrict(String location) {
+        // This is a simplified example
+        // In a real application, you might use a more sophisticated approach or API
+        if (location != null && location.contains(",")) {
+            String[] parts = location.split(",");
+            if (parts.length >= 2) {
+                return parts[1].trim();
+            }
+        }
+        return null;
+    }
+
+    public static String extractCity(String location) {
+        // This is a simplified example
+        if (location != null && location.contains(",")) {
+            String[] parts = location.split(",");
+            if (parts.length >= 1) {
+                return parts[0].trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * City if the location has one, otherwise the whole trimmed location;
+     * null for blank locations.
+     */
+    public static String locationKey(String location) {
+        String city = extractCity(location);
+        if (city != null && !city.isEmpty()) {
+            return city;
+        }
+        if (location == null || location.trim().isEmpty()) {
+            return null;
+        }
+        return location.trim();
+    }
+}
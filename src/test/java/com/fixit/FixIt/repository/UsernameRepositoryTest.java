@@ -0,0 +1,54 @@
+package com.fixit.FixIt.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UsernameRepositoryTest {
+
+	@Test
+	void acceptsOrdinaryUsernames() {
+		assertTrue(UsernameRepository.isValidUsername("asha"));
+		assertTrue(UsernameRepository.isValidUsername("Asha.K_2024"));
+		assertTrue(UsernameRepository.isValidUsername("..."));
+		assertTrue(UsernameRepository.isValidUsername("__a"));
+		assertTrue(UsernameRepository.isValidUsername("___"));
+	}
+
+	@Test
+	void rejectsNamesThatCannotBeDocumentIds() {
+		assertFalse(UsernameRepository.isValidUsername(null));
+		assertFalse(UsernameRepository.isValidUsername(""));
+		assertFalse(UsernameRepository.isValidUsername("a/b"));
+		assertFalse(UsernameRepository.isValidUsername("."));
+		assertFalse(UsernameRepository.isValidUsername(".."));
+		assertFalse(UsernameRepository.isValidUsername("__name__"));
+		assertFalse(UsernameRepository.isValidUsername("____"));
+	}
+
+	@Test
+	void limitsUsernamesTo1500Bytes() {
+		assertTrue(UsernameRepository.isValidUsername("a".repeat(1500)));
+		assertFalse(UsernameRepository.isValidUsername("a".repeat(1501)));
+		// Two bytes per character in UTF-8
+		assertFalse(UsernameRepository.isValidUsername("\u00e9".repeat(751)));
+	}
+
+	@Test
+	void derivesTheBaseFromLettersAndDigits() {
+		assertEquals("ashak2024", UsernameRepository.baseUsername("Asha.K_2024"));
+		assertEquals("ravi", UsernameRepository.baseUsername("  RAVI "));
+		assertEquals("user", UsernameRepository.baseUsername("\u00e9\u00e8!"));
+		assertEquals("user", UsernameRepository.baseUsername(""));
+		assertEquals("user", UsernameRepository.baseUsername(null));
+	}
+
+	@Test
+	void numbersCandidatesAfterTheBase() {
+		assertEquals("asha", UsernameRepository.candidate("asha", 0));
+		assertEquals("asha1", UsernameRepository.candidate("asha", 1));
+		assertEquals("asha12", UsernameRepository.candidate("asha", 12));
+	}
+}
@@ -0,0 +1,105 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.ImageSize;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageByteCacheTest {
+
+	@Test
+	void evictsLeastRecentlyUsedImagesToStayWithinTheBudget() {
+		ImageByteCache cache = new ImageByteCache(100, 50, false);
+		cache.put("a", ImageSize.THUMBNAIL, "image/jpeg", "\"a\"", new byte[40]);
+		cache.put("b", ImageSize.THUMBNAIL, "image/jpeg", "\"b\"", new byte[40]);
+		// Touching a makes b the least recently used
+		assertNotNull(cache.get("a", ImageSize.THUMBNAIL));
+
+		cache.put("c", ImageSize.THUMBNAIL, "image/jpeg", "\"c\"", new byte[40]);
+
+		assertNull(cache.get("b", ImageSize.THUMBNAIL));
+		assertNotNull(cache.get("a", ImageSize.THUMBNAIL));
+		assertNotNull(cache.get("c", ImageSize.THUMBNAIL));
+		assertEquals(80L, cache.getMetrics().get("bytes"));
+		assertEquals(1L, cache.getMetrics().get("evictions"));
+	}
+
+	@Test
+	void evictsAsManyImagesAsTheNewOneNeeds() {
+		ImageByteCache cache = new ImageByteCache(100, 100, false);
+		cache.put("a", ImageSize.THUMBNAIL, "image/jpeg", "\"a\"", new byte[30]);
+		cache.put("b", ImageSize.THUMBNAIL, "image/jpeg", "\"b\"", new byte[30]);
+		cache.put("c", ImageSize.THUMBNAIL, "image/jpeg", "\"c\"", new byte[30]);
+
+		cache.put("d", ImageSize.MEDIUM, "image/jpeg", "\"d\"", new byte[90]);
+
+		Map<String, Object> metrics = cache.getMetrics();
+		assertEquals(1, metrics.get("entries"));
+		assertEquals(90L, metrics.get("bytes"));
+		assertEquals(3L, metrics.get("evictions"));
+	}
+
+	@Test
+	void replacingAnImageCountsOnlyTheNewBytes() {
+		ImageByteCache cache = new ImageByteCache(100, 100, false);
+		cache.put("a", ImageSize.THUMBNAIL, "image/jpeg", "\"a1\"", new byte[60]);
+		cache.put("a", ImageSize.THUMBNAIL, "image/jpeg", "\"a2\"", new byte[70]);
+
+		assertEquals("\"a2\"", cache.get("a", ImageSize.THUMBNAIL).getEtag());
+		assertEquals(70L, cache.getMetrics().get("bytes"));
+		assertEquals(0L, cache.getMetrics().get("evictions"));
+	}
+
+	@Test
+	void admitsOnlyImagesWithinTheImageLimit() {
+		ImageByteCache cache = new ImageByteCache(100, 50, false);
+
+		assertNull(cache.put("big", ImageSize.FULL, "image/jpeg", "\"big\"", new byte[51]));
+		assertNull(cache.put("empty", ImageSize.FULL, "image/jpeg", "\"empty\"", new byte[0]));
+		assertTrue(cache.admits(50));
+		assertFalse(cache.admits(51));
+		// The image limit never exceeds the total budget
+		assertFalse(new ImageByteCache(10, 50, false).admits(11));
+		assertEquals(0L, cache.getMetrics().get("bytes"));
+	}
+
+	@Test
+	void evictDropsEverySizeOfAnImage() {
+		ImageByteCache cache = new ImageByteCache(100, 100, false);
+		cache.put("a", ImageSize.THUMBNAIL, "image/jpeg", "\"t\"", new byte[10]);
+		cache.put("a", ImageSize.MEDIUM, "image/jpeg", "\"m\"", new byte[20]);
+		cache.put("b", ImageSize.THUMBNAIL, "image/jpeg", "\"b\"", new byte[30]);
+
+		cache.evict("a");
+
+		assertNull(cache.get("a", ImageSize.THUMBNAIL));
+		assertNull(cache.get("a", ImageSize.MEDIUM));
+		assertEquals(30L, cache.getMetrics().get("bytes"));
+	}
+
+	@Test
+	void streamsTheCachedBytesOnAndOffHeap() throws Exception {
+		byte[] bytes = {1, 2, (byte) 0xff};
+		for (boolean offHeap : new boolean[] {false, true}) {
+			ImageByteCache cache = new ImageByteCache(100, 100, offHeap);
+			cache.put("a", ImageSize.FULL, "image/png", "\"a\"", bytes);
+			ImageByteCache.CachedImage image = cache.get("a", ImageSize.FULL);
+
+			// Each stream reads its own view of the bytes
+			try (InputStream first = image.openStream(); InputStream second = image.openStream()) {
+				assertArrayEquals(bytes, first.readAllBytes());
+				assertArrayEquals(bytes, second.readAllBytes());
+			}
+			assertEquals(3, image.getLength());
+			assertEquals("image/png", image.getContentType());
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.fixit.FixIt.service;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.AggregateQuery;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.Query;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IssueCountServiceTest {
+
+	private final Query query = mock(Query.class);
+	private final AggregateQuery aggregate = mock(AggregateQuery.class);
+	private final AggregateQuerySnapshot snapshot = mock(AggregateQuerySnapshot.class);
+
+	IssueCountServiceTest() {
+		when(query.count()).thenReturn(aggregate);
+		when(aggregate.get()).thenReturn(ApiFutures.immediateFuture(snapshot));
+		when(snapshot.getCount()).thenReturn(3L, 5L);
+	}
+
+	@Test
+	void servesRepeatedCountsFromTheCache() throws Exception {
+		IssueCountService counts = new IssueCountService(60);
+
+		assertEquals(3, counts.count("open", query));
+		assertEquals(3, counts.count("open", query));
+		verify(aggregate, times(1)).get();
+	}
+
+	@Test
+	void cachesEachKeySeparately() throws Exception {
+		IssueCountService counts = new IssueCountService(60);
+
+		assertEquals(3, counts.count("open", query));
+		assertEquals(5, counts.count("resolved", query));
+		verify(aggregate, times(2)).get();
+	}
+
+	@Test
+	void recountsOnceTheTtlHasPassed() throws Exception {
+		IssueCountService counts = new IssueCountService(0);
+
+		assertEquals(3, counts.count("open", query));
+		assertEquals(5, counts.count("open", query));
+		verify(aggregate, times(2)).get();
+	}
+
+	@Test
+	void recountsAfterInvalidation() throws Exception {
+		IssueCountService counts = new IssueCountService(60);
+
+		assertEquals(3, counts.count("open", query));
+		counts.invalidate();
+		assertEquals(5, counts.count("open", query));
+		verify(aggregate, times(2)).get();
+	}
+}
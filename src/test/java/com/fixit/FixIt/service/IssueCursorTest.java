@@ -0,0 +1,107 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.model.IssueSortOrder;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IssueCursorTest {
+
+	private static final String FINGERPRINT = IssueCursor.fingerprint("OPEN", null, null);
+
+	@Test
+	void roundTripsThroughItsToken() {
+		Issue issue = issue("issue-1", new Date(1700000000000L), 7);
+
+		IssueCursor cursor = IssueCursor.decode(IssueCursor.after(issue, IssueSortOrder.NEWEST, FINGERPRINT).encode());
+
+		cursor.verify(IssueSortOrder.NEWEST, FINGERPRINT);
+		assertEquals("issue-1", cursor.getDocumentId());
+		assertEquals(new Date(1700000000000L), cursor.getSortValue());
+		assertEquals(new Date(1700000000000L), cursor.toProbe().getCreatedAt());
+		assertEquals("issue-1", cursor.toProbe().getId());
+	}
+
+	@Test
+	void upvoteCursorsCarryTheCountAsALong() {
+		Issue issue = issue("issue-2", new Date(), 42);
+
+		IssueCursor cursor = IssueCursor.decode(IssueCursor.after(issue, IssueSortOrder.MOST_UPVOTED, FINGERPRINT).encode());
+
+		assertEquals(42L, cursor.getSortValue());
+		assertEquals(42, cursor.toProbe().getUpvotes());
+	}
+
+	@Test
+	void missingSortKeyEncodesAsZero() {
+		IssueCursor cursor = IssueCursor.decode(
+			IssueCursor.after(issue("issue-3", null, null), IssueSortOrder.RECENTLY_UPDATED, FINGERPRINT).encode());
+
+		assertEquals(new Date(0), cursor.getSortValue());
+	}
+
+	@Test
+	void tokenIsUrlSafe() {
+		String token = IssueCursor.after(issue("a/b+c", new Date(), 0), IssueSortOrder.OLDEST, FINGERPRINT).encode();
+
+		assertFalse(token.contains("+") || token.contains("/") || token.contains("="), token);
+	}
+
+	@Test
+	void rejectsMalformedTokens() {
+		assertBadRequest(() -> IssueCursor.decode("not a cursor!"));
+		assertBadRequest(() -> IssueCursor.decode(token("NEWEST|1700000000000|issue-1")));
+		assertBadRequest(() -> IssueCursor.decode(token("SHUFFLED|1700000000000|issue-1|" + FINGERPRINT)));
+		assertBadRequest(() -> IssueCursor.decode(token("NEWEST|yesterday|issue-1|" + FINGERPRINT)));
+	}
+
+	@Test
+	void rejectsTokensForOtherQueries() {
+		IssueCursor cursor = IssueCursor.after(issue("issue-1", new Date(), 0), IssueSortOrder.NEWEST, FINGERPRINT);
+
+		assertBadRequest(() -> cursor.verify(IssueSortOrder.OLDEST, FINGERPRINT));
+		assertBadRequest(() -> cursor.verify(IssueSortOrder.NEWEST, IssueCursor.fingerprint("RESOLVED", null, null)));
+	}
+
+	@Test
+	void rejectsTamperedFingerprints() {
+		IssueCursor cursor = IssueCursor.decode(token("NEWEST|1700000000000|issue-1|forged"));
+
+		assertBadRequest(() -> cursor.verify(IssueSortOrder.NEWEST, FINGERPRINT));
+	}
+
+	@Test
+	void fingerprintDependsOnEveryFilter() {
+		assertEquals(FINGERPRINT, IssueCursor.fingerprint("OPEN", null, null));
+		assertNotEquals(FINGERPRINT, IssueCursor.fingerprint("OPEN", "Delhi", null));
+		assertNotEquals(IssueCursor.fingerprint("OPEN", null), IssueCursor.fingerprint(null, "OPEN"));
+	}
+
+	private static Issue issue(String id, Date createdAt, Integer upvotes) {
+		Issue issue = new Issue();
+		issue.setId(id);
+		issue.setCreatedAt(createdAt);
+		issue.setUpdatedAt(createdAt);
+		issue.setUpvotes(upvotes);
+		return issue;
+	}
+
+	private static String token(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void assertBadRequest(Runnable action) {
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, action::run);
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+	}
+}
@@ -0,0 +1,161 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.model.IssueStatus;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class IssueQueryPlannerTest {
+
+	private final IssueQueryPlanner planner = new IssueQueryPlanner();
+	private final Query query = mock(Query.class, RETURNS_SELF);
+
+	@Test
+	void pushesDownEqualityFilters() {
+		IssueQueryPlanner.Plan plan = planner.plan(query, "open", "Delhi", "user-1", null, null, null, "newest");
+
+		verify(query).whereEqualTo("status", IssueStatus.OPEN);
+		verify(query).whereEqualTo("location", "Delhi");
+		verify(query).whereEqualTo("reporterUid", "user-1");
+		assertEquals(List.of("status", "location", "reporterUid"), plan.getEqualityFields());
+		assertEquals("issues(status ASC, location ASC, reporterUid ASC, createdAt DESC)", plan.describeIndex());
+		assertFalse(plan.hasResidualFilters());
+	}
+
+	@Test
+	void pushesDownUpvoteRangeWhenSortedByUpvotes() {
+		IssueQueryPlanner.Plan plan = planner.plan(query, null, null, null, 5, null, null, "most-upvoted");
+
+		verify(query).whereGreaterThanOrEqualTo("upvotes", 5);
+		assertFalse(plan.hasResidualFilters());
+		assertEquals("single-field", plan.describeIndex());
+	}
+
+	@Test
+	void keepsUpvoteRangeAsResidualFilterOtherwise() {
+		IssueQueryPlanner.Plan plan = planner.plan(query, null, null, null, 5, null, null, "newest");
+
+		verify(query, never()).whereGreaterThanOrEqualTo(eq("upvotes"), any());
+		assertTrue(plan.hasResidualFilters());
+		assertTrue(plan.matchesResidualFilters(issue(IssueStatus.OPEN, 5, new Date())));
+		assertFalse(plan.matchesResidualFilters(issue(IssueStatus.OPEN, 4, new Date())));
+		assertFalse(plan.matchesResidualFilters(issue(IssueStatus.OPEN, null, new Date())));
+	}
+
+	@Test
+	void pushesDownDateRangeWhenSortedByCreation() {
+		IssueQueryPlanner.Plan plan = planner.plan(query, null, null, null, null, "2024-03-01", "2024-03-31", "oldest");
+
+		verify(query).whereGreaterThanOrEqualTo("createdAt", day(2024, Calendar.MARCH, 1));
+		verify(query).whereLessThan("createdAt", day(2024, Calendar.APRIL, 1));
+		assertFalse(plan.hasResidualFilters());
+	}
+
+	@Test
+	void keepsDateRangeAsResidualFilterOtherwise() {
+		IssueQueryPlanner.Plan plan = planner.plan(query, null, null, null, null, "2024-03-01", "2024-03-31", "recently-updated");
+
+		verify(query, never()).whereGreaterThanOrEqualTo(eq("createdAt"), any());
+		verify(query, never()).whereLessThan(eq("createdAt"), any());
+		assertTrue(plan.matchesResidualFilters(issue(IssueStatus.OPEN, 0, day(2024, Calendar.MARCH, 1))));
+		// The end date is inclusive
+		assertTrue(plan.matchesResidualFilters(issue(IssueStatus.OPEN, 0, new Date(day(2024, Calendar.APRIL, 1).getTime() - 1))));
+		assertFalse(plan.matchesResidualFilters(issue(IssueStatus.OPEN, 0, day(2024, Calendar.APRIL, 1))));
+		assertFalse(plan.matchesResidualFilters(issue(IssueStatus.OPEN, 0, null)));
+	}
+
+	@Test
+	void matchesAllFiltersIncludingPushedDownOnes() {
+		IssueQueryPlanner.Plan plan = planner.plan(query, "open", null, null, 5, null, null, "most-upvoted");
+
+		assertTrue(plan.matchesResidualFilters(issue(IssueStatus.RESOLVED, 1, new Date())));
+		assertTrue(plan.matchesAllFilters(issue(IssueStatus.OPEN, 5, new Date())));
+		assertFalse(plan.matchesAllFilters(issue(IssueStatus.RESOLVED, 5, new Date())));
+		assertFalse(plan.matchesAllFilters(issue(IssueStatus.OPEN, 1, new Date())));
+	}
+
+	@Test
+	void ordersByDocumentIdAfterTheSortField() {
+		planner.plan(query, null, null, null, null, null, null, "least-upvoted");
+
+		InOrder order = inOrder(query);
+		order.verify(query).orderBy("upvotes", Query.Direction.ASCENDING);
+		order.verify(query).orderBy(FieldPath.documentId(), Query.Direction.ASCENDING);
+	}
+
+	@Test
+	void unknownSortFallsBackToNewest() {
+		planner.plan(query, null, null, null, null, null, null, "shuffled");
+
+		InOrder order = inOrder(query);
+		order.verify(query).orderBy("createdAt", Query.Direction.DESCENDING);
+		order.verify(query).orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+	}
+
+	@Test
+	void countKeyIgnoresTheSortOrder() {
+		String newest = planner.plan(query, "open", null, null, 5, null, null, "newest").getCountKey();
+		String upvoted = planner.plan(query, "open", null, null, 5, null, null, "most-upvoted").getCountKey();
+		String other = planner.plan(query, "open", null, null, 6, null, null, "newest").getCountKey();
+
+		assertEquals(newest, upvoted);
+		assertFalse(newest.equals(other));
+	}
+
+	@Test
+	void rejectsInvalidFilters() {
+		assertBadRequest(() -> planner.plan(query, "misplaced", null, null, null, null, null, null));
+		assertBadRequest(() -> planner.plan(query, null, null, null, null, "01/03/2024", null, null));
+		assertBadRequest(() -> planner.plan(query, null, null, null, null, null, "yesterday", null));
+	}
+
+	@Test
+	void listsAnIndexPerFilterCombinationAndSortOrder() {
+		List<String> indexes = IssueQueryPlanner.requiredIndexes();
+
+		assertEquals(7 * 5, indexes.size());
+		assertTrue(indexes.contains("issues(status ASC, updatedAt DESC)"));
+		assertTrue(indexes.contains("issues(location ASC, reporterUid ASC, upvotes ASC)"));
+	}
+
+	private static Issue issue(IssueStatus status, Integer upvotes, Date createdAt) {
+		Issue issue = new Issue();
+		issue.setId("issue-1");
+		issue.setStatus(status);
+		issue.setUpvotes(upvotes);
+		issue.setCreatedAt(createdAt);
+		return issue;
+	}
+
+	private static Date day(int year, int month, int dayOfMonth) {
+		Calendar c = Calendar.getInstance();
+		c.clear();
+		c.set(year, month, dayOfMonth);
+		return c.getTime();
+	}
+
+	private static void assertBadRequest(Runnable action) {
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, action::run);
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+	}
+}
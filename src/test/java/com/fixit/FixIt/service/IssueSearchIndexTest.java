@@ -0,0 +1,121 @@
+package com.fixit.FixIt.service;
+
+import com.fixit.FixIt.model.Issue;
+import com.fixit.FixIt.model.IssueStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IssueSearchIndexTest {
+
+	private final IssueSearchIndex index = new IssueSearchIndex();
+
+	@Test
+	void tokenizesOnPunctuationAndLowercases() {
+		assertEquals(List.of("broken", "street", "light", "mg", "road", "42"),
+			IssueSearchIndex.tokenize("Broken street-light, MG Road #42"));
+		assertEquals(List.of("caf\u00e9", "no"), IssueSearchIndex.tokenize("  Caf\u00c9_no. "));
+		assertTrue(IssueSearchIndex.tokenize(null).isEmpty());
+		assertTrue(IssueSearchIndex.tokenize("?!").isEmpty());
+	}
+
+	@Test
+	void matchesPartiallyTypedWords() {
+		index.index(issue("1", "Pothole on main road", "Deep and growing"));
+
+		assertEquals(List.of("1"), ids(index.search("poth")));
+		assertEquals(List.of("1"), ids(index.search("main ro")));
+		assertTrue(index.search("hole").isEmpty());
+	}
+
+	@Test
+	void requiresEveryToken() {
+		index.index(issue("1", "Pothole on main road", null));
+		index.index(issue("2", "Pothole near school", null));
+
+		assertEquals(List.of("2"), ids(index.search("pothole school")));
+		assertTrue(index.search("pothole park").isEmpty());
+	}
+
+	@Test
+	void ranksExactTermsAbovePrefixes() {
+		index.index(issue("prefix", "Potholes everywhere", null));
+		index.index(issue("exact", "Pothole", null));
+
+		List<IssueSearchIndex.Hit> hits = index.search("pothole");
+
+		assertEquals(List.of("exact", "prefix"), ids(hits));
+		assertEquals(2 * hits.get(1).getScore(), hits.get(0).getScore(), 0.0);
+	}
+
+	@Test
+	void ranksTitleAboveLocationAboveDescription() {
+		index.index(issue("description", "Broken light", "Garbage piling up"));
+		Issue located = issue("location", "Broken light", null);
+		located.setLocation("Garbage dump road");
+		index.index(located);
+		index.index(issue("title", "Garbage not collected", null));
+
+		assertEquals(List.of("title", "location", "description"), ids(index.search("garbage")));
+	}
+
+	@Test
+	void reindexingReplacesOldTerms() {
+		index.index(issue("1", "Streetlight out", null));
+		index.index(issue("1", "Water leak", null));
+
+		assertTrue(index.search("streetlight").isEmpty());
+		assertEquals(List.of("1"), ids(index.search("leak")));
+
+		index.remove("1");
+		assertTrue(index.search("leak").isEmpty());
+		assertNull(index.get("1"));
+	}
+
+	@Test
+	void keepsTheNewerVersionOfAnIssue() {
+		Issue newer = issue("1", "Water leak", null);
+		newer.setUpdatedAt(new Date(2000));
+		Issue older = issue("1", "Streetlight out", null);
+		older.setUpdatedAt(new Date(1000));
+
+		index.index(newer);
+		index.indexIfNewer(older);
+
+		assertEquals(List.of("1"), ids(index.search("leak")));
+		assertTrue(index.search("streetlight").isEmpty());
+	}
+
+	@Test
+	void returnsTrimmedCopies() {
+		Issue issue = issue("1", "Water leak", "Pipe burst");
+		issue.setStatus(IssueStatus.OPEN);
+		issue.setUpvotes(3);
+		index.index(issue);
+
+		Issue hit = index.search("leak").get(0).getIssue();
+
+		assertEquals("1", hit.getId());
+		assertEquals(IssueStatus.OPEN, hit.getStatus());
+		assertEquals(3, hit.getUpvotes());
+		assertNull(hit.getTitle());
+		assertNull(hit.getDescription());
+	}
+
+	private static Issue issue(String id, String title, String description) {
+		Issue issue = new Issue();
+		issue.setId(id);
+		issue.setTitle(title);
+		issue.setDescription(description);
+		return issue;
+	}
+
+	private static List<String> ids(List<IssueSearchIndex.Hit> hits) {
+		return hits.stream().map(hit -> hit.getIssue().getId()).toList();
+	}
+}
@@ -0,0 +1,89 @@
+package com.fixit.FixIt.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.fixit.FixIt.service.UpvoteWriteBehindBuffer.Result.ACCEPTED;
+import static com.fixit.FixIt.service.UpvoteWriteBehindBuffer.Result.DUPLICATE;
+import static com.fixit.FixIt.service.UpvoteWriteBehindBuffer.Result.FULL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpvoteWriteBehindBufferTest {
+
+	@TempDir
+	Path journalDir;
+
+	@Test
+	void replaysJournaledVotesAfterARestart() throws Exception {
+		UpvoteWriteBehindBuffer buffer = recovered(10);
+		assertEquals(ACCEPTED, buffer.offer("user-1", "issue-1"));
+		assertEquals(ACCEPTED, buffer.offer("user-2", "issue-1"));
+
+		UpvoteWriteBehindBuffer restarted = recovered(10);
+
+		assertTrue(restarted.isPending("user-1", "issue-1"));
+		assertTrue(restarted.isPending("user-2", "issue-1"));
+		assertFalse(restarted.isPending("user-1", "issue-2"));
+		assertEquals(DUPLICATE, restarted.offer("user-1", "issue-1"));
+	}
+
+	@Test
+	void keepsReplayedSegmentsAndJournalsToANewOne() throws Exception {
+		recovered(10).offer("user-1", "issue-1");
+
+		UpvoteWriteBehindBuffer restarted = recovered(10);
+		assertEquals(ACCEPTED, restarted.offer("user-2", "issue-2"));
+
+		assertEquals(List.of("user-1\tissue-1"), votesIn("upvotes-0.log"));
+		assertEquals(List.of("user-2\tissue-2"), votesIn("upvotes-1.log"));
+
+		UpvoteWriteBehindBuffer again = recovered(10);
+		assertTrue(again.isPending("user-1", "issue-1"));
+		assertTrue(again.isPending("user-2", "issue-2"));
+	}
+
+	@Test
+	void skipsMalformedJournalLines() throws Exception {
+		Files.writeString(journalDir.resolve("upvotes-3.log"),
+			"user-1\tissue-1\t1700000000000\nnot a vote\nuser-2\tissue-2\n");
+
+		UpvoteWriteBehindBuffer buffer = recovered(10);
+		buffer.offer("user-3", "issue-3");
+
+		assertTrue(buffer.isPending("user-1", "issue-1"));
+		assertFalse(buffer.isPending("user-2", "issue-2"));
+		// New votes go after the highest replayed segment
+		assertEquals(List.of("user-3\tissue-3"), votesIn("upvotes-4.log"));
+	}
+
+	@Test
+	void replaysAVoteJournaledTwiceOnce() throws Exception {
+		Files.writeString(journalDir.resolve("upvotes-0.log"), "user-1\tissue-1\t1700000000000\n");
+		Files.writeString(journalDir.resolve("upvotes-1.log"), "user-1\tissue-1\t1700000001000\n");
+
+		UpvoteWriteBehindBuffer buffer = recovered(2);
+
+		assertEquals(ACCEPTED, buffer.offer("user-2", "issue-1"));
+		assertEquals(FULL, buffer.offer("user-3", "issue-1"));
+	}
+
+	private UpvoteWriteBehindBuffer recovered(int maxPending) throws Exception {
+		UpvoteWriteBehindBuffer buffer = new UpvoteWriteBehindBuffer(true, maxPending, 500,
+			journalDir.toString(), null, null);
+		buffer.recover();
+		return buffer;
+	}
+
+	// Journal lines without their timestamps
+	private List<String> votesIn(String segment) throws Exception {
+		return Files.readAllLines(journalDir.resolve(segment)).stream()
+			.map(line -> line.substring(0, line.lastIndexOf('\t')))
+			.toList();
+	}
+}
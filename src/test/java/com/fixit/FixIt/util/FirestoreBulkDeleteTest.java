@@ -0,0 +1,115 @@
+package com.fixit.FixIt.util;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FirestoreBulkDeleteTest {
+
+	private final Query query = mock(Query.class, RETURNS_SELF);
+	private final Firestore firestore = mock(Firestore.class);
+	private final WriteBatch batch = mock(WriteBatch.class);
+	private final List<Long> progress = new ArrayList<>();
+
+	FirestoreBulkDeleteTest() {
+		when(query.getFirestore()).thenReturn(firestore);
+		when(firestore.batch()).thenReturn(batch);
+		when(batch.commit()).thenReturn(ApiFutures.immediateFuture(List.of()));
+	}
+
+	@Test
+	void pagesByDocumentIdInFullBatches() throws Exception {
+		pages(page(0));
+
+		FirestoreBulkDelete.deleteAll(query, 2, progress::add);
+
+		verify(query).select(FieldPath.documentId());
+		verify(query).orderBy(FieldPath.documentId());
+		verify(query).limit(FirestoreBulkDelete.MAX_BATCH_SIZE);
+	}
+
+	@Test
+	void continuesAfterTheLastDocumentUntilAShortPage() throws Exception {
+		List<QueryDocumentSnapshot> first = page(FirestoreBulkDelete.MAX_BATCH_SIZE);
+		List<QueryDocumentSnapshot> second = page(120);
+		pages(first, second);
+
+		long deleted = FirestoreBulkDelete.deleteAll(query, 2, progress::add);
+
+		assertEquals(620, deleted);
+		assertEquals(List.of(500L, 620L), progress);
+		verify(query).startAfter(first.get(first.size() - 1));
+		verify(query, times(2)).get();
+		verify(batch, times(620)).delete(any());
+		verify(batch, times(2)).commit();
+	}
+
+	@Test
+	void stopsOnAnEmptyPage() throws Exception {
+		pages(page(FirestoreBulkDelete.MAX_BATCH_SIZE), page(0));
+
+		assertEquals(500, FirestoreBulkDelete.deleteAll(query, 2, progress::add));
+		verify(query, times(2)).get();
+		verify(batch, times(1)).commit();
+	}
+
+	@Test
+	void deletesNothingWithoutMatches() throws Exception {
+		pages(page(0));
+
+		assertEquals(0, FirestoreBulkDelete.deleteAll(query, 2, progress::add));
+		verify(firestore, never()).batch();
+		assertEquals(List.of(), progress);
+	}
+
+	@Test
+	void stopsPagingOnceACommitFails() {
+		pages(page(FirestoreBulkDelete.MAX_BATCH_SIZE), page(FirestoreBulkDelete.MAX_BATCH_SIZE));
+		when(batch.commit()).thenReturn(ApiFutures.immediateFailedFuture(new IllegalStateException("quota")));
+
+		assertThrows(ExecutionException.class, () -> FirestoreBulkDelete.deleteAll(query, 2, progress::add));
+		verify(query, times(1)).get();
+		assertEquals(List.of(), progress);
+	}
+
+	@SafeVarargs
+	private void pages(List<QueryDocumentSnapshot>... pages) {
+		List<Object> futures = new ArrayList<>();
+		for (List<QueryDocumentSnapshot> page : pages) {
+			QuerySnapshot snapshot = mock(QuerySnapshot.class);
+			when(snapshot.getDocuments()).thenReturn(page);
+			futures.add(ApiFutures.immediateFuture(snapshot));
+		}
+		when(query.get()).thenAnswer(invocation -> futures.remove(0));
+	}
+
+	// Only the last document of a page is used as a cursor
+	private static List<QueryDocumentSnapshot> page(int size) {
+		if (size == 0) {
+			return List.of();
+		}
+		List<QueryDocumentSnapshot> page = new ArrayList<>(Collections.nCopies(size - 1, mock(QueryDocumentSnapshot.class)));
+		page.add(mock(QueryDocumentSnapshot.class));
+		return page;
+	}
+}
@@ -0,0 +1,96 @@
+package com.fixit.FixIt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoHashUtilTest {
+
+	@Test
+	void encodesKnownPoint() {
+		assertEquals("u4pruydqq", GeoHashUtil.encode(57.64911, 10.40744, 9));
+		assertEquals("u4pru", GeoHashUtil.encode(57.64911, 10.40744, 5));
+	}
+
+	@Test
+	void boundsContainTheEncodedPoint() {
+		double[] box = GeoHashUtil.bounds("u4pruydqq");
+
+		assertTrue(box[0] <= 57.64911 && 57.64911 <= box[2]);
+		assertTrue(box[1] <= 10.40744 && 10.40744 <= box[3]);
+		assertEquals(GeoHashUtil.cellHeight(9), box[2] - box[0], 1e-12);
+		assertEquals(GeoHashUtil.cellWidth(9), box[3] - box[1], 1e-12);
+		assertArrayEquals(new double[] {45, 135, 90, 180}, GeoHashUtil.bounds("z"));
+		assertThrows(IllegalArgumentException.class, () -> GeoHashUtil.bounds("a"));
+	}
+
+	@Test
+	void coversBoxesEndingOnTheAntimeridian() {
+		assertCovers(10, 179.9, 10.1, 180, 16);
+		assertCovers(10, -180, 10.1, -179.9, 16);
+
+		double[] circle = GeoHashUtil.boundingBox(0, 179.99, 5);
+		assertEquals(180, circle[3]);
+		assertCovers(circle[0], circle[1], circle[2], circle[3], 16);
+	}
+
+	@Test
+	void coversBoxesTouchingThePoles() {
+		assertCovers(89.9, -10, 90, 10, 16);
+		assertCovers(-90, -10, -89.9, 10, 16);
+
+		// Near a pole the circle spans every longitude
+		double[] circle = GeoHashUtil.boundingBox(89.99, 0, 50);
+		assertArrayEquals(new double[] {-180, 180}, new double[] {circle[1], circle[3]});
+		assertEquals(90, circle[2]);
+		assertCovers(circle[0], circle[1], circle[2], circle[3], 16);
+	}
+
+	@Test
+	void coversTheWholeWorld() {
+		assertCovers(-90, -180, 90, 180, 32);
+		assertEquals(32, GeoHashUtil.coveringCells(-90, -180, 90, 180, 4).size());
+	}
+
+	@Test
+	void subdividesIntoChildrenInsideTheBox() {
+		assertEquals(32, GeoHashUtil.subdivide("b", -90, -180, 90, 180).size());
+		assertEquals(Set.of("zz"), GeoHashUtil.subdivide("z", 89, 179, 90, 180));
+		assertTrue(GeoHashUtil.subdivide("z", -10, -10, 10, 10).isEmpty());
+
+		for (String child : GeoHashUtil.subdivide("u4pr", 57.6, 10.3, 57.7, 10.5)) {
+			assertTrue(child.startsWith("u4pr") && child.length() == 5, child);
+		}
+	}
+
+	@Test
+	void measuresGreatCircleDistance() {
+		assertEquals(0, GeoHashUtil.distanceKm(12.97, 77.59, 12.97, 77.59), 1e-9);
+		assertEquals(111.2, GeoHashUtil.distanceKm(0, 0, 1, 0), 0.1);
+		// Across the antimeridian the short way round
+		assertEquals(22.2, GeoHashUtil.distanceKm(0, 179.9, 0, -179.9), 0.1);
+	}
+
+	/**
+	 * Every point of a grid over the box falls in one of its covering cells,
+	 * and no more cells are returned than asked for.
+	 */
+	private static void assertCovers(double minLat, double minLng, double maxLat, double maxLng, int maxCells) {
+		Set<String> cells = GeoHashUtil.coveringCells(minLat, minLng, maxLat, maxLng, maxCells);
+		assertTrue(cells.size() <= maxCells, "Too many cells: " + cells.size());
+		int precision = cells.iterator().next().length();
+		for (int i = 0; i <= 20; i++) {
+			for (int j = 0; j <= 20; j++) {
+				double lat = minLat + (maxLat - minLat) * i / 20;
+				double lng = minLng + (maxLng - minLng) * j / 20;
+				String cell = GeoHashUtil.encode(lat, lng, precision);
+				assertTrue(cells.contains(cell), "Point " + lat + "," + lng + " in " + cell + " is not covered");
+			}
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.fixit.FixIt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageUrlUtilTest {
+
+	@Test
+	void buildsImageUrls() {
+		assertEquals("/api/images/abc123", ImageUrlUtil.imageUrl("abc123"));
+	}
+
+	@Test
+	void extractsIdsFromRelativeAndAbsoluteUrls() {
+		assertEquals(List.of("abc123", "def456"), ImageUrlUtil.imageIds(List.of(
+			"/api/images/abc123",
+			"https://fixit.example.com/api/images/def456")));
+	}
+
+	@Test
+	void stripsSizePathQueryAndFragment() {
+		assertEquals(List.of("a1", "b2", "c3"), ImageUrlUtil.imageIds(List.of(
+			"/api/images/a1/thumbnail",
+			"/api/images/b2?size=medium",
+			"/api/images/c3#preview")));
+	}
+
+	@Test
+	void keepsFirstOccurrenceOfEachId() {
+		assertEquals(List.of("b2", "a1"), ImageUrlUtil.imageIds(List.of(
+			"/api/images/b2",
+			"/api/images/a1?size=thumbnail",
+			"https://fixit.example.com/api/images/b2")));
+	}
+
+	@Test
+	void skipsExternalAndEmptyUrls() {
+		assertEquals(List.of("a1"), ImageUrlUtil.imageIds(Arrays.asList(
+			"https://cdn.example.com/photo.jpg",
+			null,
+			"/api/images/",
+			"/api/images/?size=thumbnail",
+			"/api/images/a1")));
+		assertTrue(ImageUrlUtil.imageIds(null).isEmpty());
+	}
+}